@@ -0,0 +1,223 @@
+package com.studyhub.chat_service.broker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lets a client receive CBOR or Smile instead of JSON.
+ *
+ * - A client sets ACCEPT_HEADER on CONNECT to the formats it reads, in order
+ * of preference (e.g. "application/cbor, application/json"); JSON stays
+ * the default when the header is missing or names nothing supported
+ * - JSON MESSAGE frames to that session are transcoded and sent as binary
+ * WebSocket frames: content-type is application/octet-stream, as Spring only
+ * sends binary frames for that type, and CONTENT_TYPE_HEADER names the format
+ * - A broadcast is transcoded once per format, not once per session, so all
+ * binary subscribers share the same payload array
+ *
+ * Inbound SEND frames stay JSON.
+ */
+@Slf4j
+@Component
+public class BinaryPayloadNegotiation {
+
+    /**
+     * Native header a client sets on CONNECT to ask for a binary format
+     */
+    public static final String ACCEPT_HEADER = "chat-accept";
+
+    /**
+     * Native header on transcoded frames: the MIME type of the body
+     */
+    public static final String CONTENT_TYPE_HEADER = "chat-content-type";
+
+    private static final int SLOTS = 64;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final boolean enabled;
+    private final Map<String, PayloadFormat> sessionFormats = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Transcoded> transcoded = new AtomicReferenceArray<>(SLOTS);
+
+    public BinaryPayloadNegotiation(MeterRegistry meterRegistry,
+            @Value("${app.websocket.binary-payloads:true}") boolean enabled) {
+        this.enabled = enabled;
+        Gauge.builder("chat.websocket.sessions.binary", sessionFormats, Map::size)
+                .description("Sessions receiving CBOR or Smile payloads instead of JSON")
+                .register(meterRegistry);
+    }
+
+    /**
+     * For the client inbound channel: records the format negotiated on CONNECT
+     */
+    public ChannelInterceptor negotiator() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                negotiate(message);
+                return message;
+            }
+        };
+    }
+
+    /**
+     * For the client outbound channel: transcodes frames to binary sessions
+     */
+    public ChannelInterceptor transcoder() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                return transcode(message);
+            }
+        };
+    }
+
+    void negotiate(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (sessionId == null) {
+            return;
+        }
+        if (type == SimpMessageType.DISCONNECT) {
+            sessionFormats.remove(sessionId);
+        } else if (type == SimpMessageType.CONNECT && enabled) {
+            PayloadFormat format = PayloadFormat.preferred(
+                    NativeMessageHeaderAccessor.getFirstNativeHeader(ACCEPT_HEADER, headers));
+            if (format != null) {
+                sessionFormats.put(sessionId, format);
+                log.debug("Session {} receives {} payloads", sessionId, format.mimeType);
+            }
+        }
+    }
+
+    Message<?> transcode(Message<?> message) {
+        if (sessionFormats.isEmpty() || !(message.getPayload() instanceof byte[] json) || json.length == 0) {
+            return message;
+        }
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        PayloadFormat format = sessionId != null ? sessionFormats.get(sessionId) : null;
+        if (format == null || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || !isJson(headers.get(MessageHeaders.CONTENT_TYPE))) {
+            return message;
+        }
+
+        byte[] encoded = encoded(json, format);
+        if (encoded == null) {
+            return message;
+        }
+        MessageHeaderAccessor mutable = MessageHeaderAccessor.getMutableAccessor(message);
+        NativeMessageHeaderAccessor accessor = mutable instanceof NativeMessageHeaderAccessor nativeAccessor
+                ? nativeAccessor : SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(CONTENT_TYPE_HEADER, format.mimeType);
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+
+    private static boolean isJson(Object contentType) {
+        MimeType mimeType = contentType instanceof MimeType type ? type
+                : contentType instanceof String value ? MimeTypeUtils.parseMimeType(value) : null;
+        return mimeType != null && MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(mimeType);
+    }
+
+    /**
+     * The payload in this format, transcoded on first use; null if it is not
+     * valid JSON
+     */
+    private byte[] encoded(byte[] json, PayloadFormat format) {
+        int slot = (System.identityHashCode(json) ^ format.ordinal()) & (SLOTS - 1);
+        Transcoded cached = transcoded.get(slot);
+        if (cached != null && cached.json() == json && cached.format() == format) {
+            return cached.bytes();
+        }
+        try {
+            byte[] bytes = format.transcode(json);
+            transcoded.set(slot, new Transcoded(json, format, bytes));
+            return bytes;
+        } catch (IOException ex) {
+            log.debug("Sending JSON, payload could not be transcoded to {}: {}", format.mimeType, ex.getMessage());
+            return null;
+        }
+    }
+
+    private record Transcoded(byte[] json, PayloadFormat format, byte[] bytes) {
+    }
+
+    /**
+     * Binary formats a client can negotiate
+     */
+    enum PayloadFormat {
+
+        CBOR("application/cbor", new CBORFactory()),
+        SMILE("application/x-jackson-smile", new SmileFactory());
+
+        final String mimeType;
+        private final JsonFactory factory;
+
+        PayloadFormat(String mimeType, JsonFactory factory) {
+            this.mimeType = mimeType;
+            this.factory = factory;
+        }
+
+        /**
+         * The first supported format in a comma-separated list, or null
+         * when JSON comes first or nothing is supported
+         */
+        static PayloadFormat preferred(String accept) {
+            if (accept == null) {
+                return null;
+            }
+            for (String candidate : accept.split(",")) {
+                String mimeType = candidate.trim();
+                int parameters = mimeType.indexOf(';');
+                if (parameters >= 0) {
+                    mimeType = mimeType.substring(0, parameters).trim();
+                }
+                if (MimeTypeUtils.APPLICATION_JSON_VALUE.equalsIgnoreCase(mimeType)) {
+                    return null;
+                }
+                for (PayloadFormat format : values()) {
+                    if (format.mimeType.equalsIgnoreCase(mimeType)) {
+                        return format;
+                    }
+                }
+            }
+            return null;
+        }
+
+        byte[] transcode(byte[] json) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+            try (JsonParser parser = JSON.createParser(json);
+                    JsonGenerator generator = factory.createGenerator(out)) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+            return out.toByteArray();
+        }
+    }
+}
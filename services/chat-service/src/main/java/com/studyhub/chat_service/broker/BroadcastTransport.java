@@ -0,0 +1,11 @@
+package com.studyhub.chat_service.broker;
+
+/**
+ * Ships broadcasts to every chat-service instance (including the sender, which
+ * ignores its own copies)
+ */
+@FunctionalInterface
+public interface BroadcastTransport {
+
+    void publish(RelayedBroadcast broadcast);
+}
@@ -0,0 +1,253 @@
+package com.studyhub.chat_service.broker;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets a reconnecting client catch up on a channel without reloading history.
+ *
+ * - The last N channel broadcasts (frames carrying MESSAGE_ID_HEADER) are
+ * kept per destination, already serialized; broadcasts relayed from other
+ * instances are recorded too
+ * - A SUBSCRIBE with RESUME_HEADER set to the last message id the client saw
+ * gets the newer frames replayed to that subscription once the broker has
+ * registered it
+ * - If that id is no longer buffered, the subscription gets one frame with
+ * REPLAY_HEADER = "gap" and the client falls back to the history endpoint
+ *
+ * Frames published while the subscription is being set up may arrive both
+ * live and replayed; clients drop duplicates by MESSAGE_ID_HEADER.
+ *
+ * Memory is bounded by app.replay.max-bytes: each channel is weighed by the
+ * payload bytes it holds (plus a fixed per-frame overhead), and the least
+ * recently used channels are evicted past the budget.
+ */
+@Slf4j
+@Component
+public class ChannelReplayBuffer {
+
+    /**
+     * Native header on channel message frames: the message id
+     */
+    public static final String MESSAGE_ID_HEADER = "chat-message-id";
+
+    /**
+     * Native header a client sets on SUBSCRIBE to resume after a message id
+     */
+    public static final String RESUME_HEADER = "last-message-id";
+
+    /**
+     * Native header on the frame telling a client it must reload history
+     */
+    public static final String REPLAY_HEADER = "chat-replay";
+
+    static final String GAP = "gap";
+
+    private static final String CACHE_NAME = "chat.replay";
+    private static final byte[] EMPTY_JSON = "{}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Estimated heap per buffered frame besides the payload: message, header
+     * maps and the id string
+     */
+    static final int FRAME_OVERHEAD = 512;
+
+    private final Cache<String, Ring> rings;
+    private final int capacity;
+    private final Counter replayed;
+    private final Counter gaps;
+
+    public ChannelReplayBuffer(MeterRegistry meterRegistry,
+            @Value("${app.replay.capacity:200}") int capacity,
+            @Value("${app.replay.max-bytes:64MB}") DataSize maxBytes,
+            @Value("${app.replay.idle-expiry:PT10M}") Duration idleExpiry) {
+        this.capacity = capacity;
+        this.rings = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((String destination, Ring ring) -> ring.weight())
+                .expireAfterAccess(idleExpiry)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rings, CACHE_NAME);
+
+        this.replayed = Counter.builder("chat.replay.replayed")
+                .description("Channel messages replayed to resuming subscriptions")
+                .register(meterRegistry);
+        this.gaps = Counter.builder("chat.replay.gaps")
+                .description("Resuming subscriptions told to reload history")
+                .register(meterRegistry);
+    }
+
+    /**
+     * For the broker channel: records channel broadcasts
+     */
+    public ChannelInterceptor recorder() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                record(message);
+                return message;
+            }
+        };
+    }
+
+    /**
+     * For the client inbound channel: replays after the broker handled a
+     * resuming SUBSCRIBE
+     */
+    public ExecutorChannelInterceptor resumer() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                    Exception ex) {
+                if (ex == null && handler instanceof AbstractBrokerMessageHandler broker) {
+                    resume(message, broker.getClientOutboundChannel());
+                }
+            }
+        };
+    }
+
+    void record(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[])) {
+            return;
+        }
+        String messageId = NativeMessageHeaderAccessor.getFirstNativeHeader(MESSAGE_ID_HEADER, message.getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (messageId == null || destination == null) {
+            return;
+        }
+        // compute, not get: the ring is re-weighed after every append
+        rings.asMap().compute(destination, (key, ring) -> {
+            Ring target = ring != null ? ring : new Ring(capacity);
+            target.append(messageId, message, ((byte[]) message.getPayload()).length);
+            return target;
+        });
+    }
+
+    /**
+     * Total weight of the buffered channels, after pending evictions
+     */
+    long weightedSize() {
+        rings.cleanUp();
+        return rings.policy().eviction().orElseThrow().weightedSize().orElse(0);
+    }
+
+    void resume(Message<?> subscribe, MessageChannel clientOutboundChannel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(subscribe);
+        String lastSeen = accessor.getFirstNativeHeader(RESUME_HEADER);
+        if (accessor.getMessageType() != SimpMessageType.SUBSCRIBE || lastSeen == null
+                || accessor.getDestination() == null) {
+            return;
+        }
+
+        Ring ring = rings.getIfPresent(accessor.getDestination());
+        List<Message<?>> missed = ring != null ? ring.after(lastSeen) : null;
+        if (missed == null) {
+            gaps.increment();
+            log.debug("Message {} no longer buffered for {}, client reloads history",
+                    lastSeen, accessor.getDestination());
+            clientOutboundChannel.send(gapFrame(accessor));
+            return;
+        }
+
+        for (Message<?> message : missed) {
+            clientOutboundChannel.send(replayFrame(accessor, message));
+        }
+        replayed.increment(missed.size());
+    }
+
+    private Message<byte[]> replayFrame(SimpMessageHeaderAccessor subscribe, Message<?> message) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(subscribe.getSessionId());
+        headers.setSubscriptionId(subscribe.getSubscriptionId());
+        headers.copyHeadersIfAbsent(message.getHeaders());
+        headers.setLeaveMutable(true);
+        return MessageBuilder.createMessage((byte[]) message.getPayload(), headers.getMessageHeaders());
+    }
+
+    private Message<byte[]> gapFrame(SimpMessageHeaderAccessor subscribe) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(subscribe.getSessionId());
+        headers.setSubscriptionId(subscribe.getSubscriptionId());
+        headers.setDestination(subscribe.getDestination());
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setNativeHeader(REPLAY_HEADER, GAP);
+        headers.setLeaveMutable(true);
+        return MessageBuilder.createMessage(EMPTY_JSON, headers.getMessageHeaders());
+    }
+
+    /**
+     * Fixed-size ring of the newest frames of one destination, oldest first
+     */
+    private static final class Ring {
+
+        private final String[] ids;
+        private final Message<?>[] messages;
+        private final int[] weights;
+        private int next;
+        private int size;
+        private long weight;
+
+        Ring(int capacity) {
+            this.ids = new String[capacity];
+            this.messages = new Message<?>[capacity];
+            this.weights = new int[capacity];
+        }
+
+        synchronized void append(String id, Message<?> message, int payloadBytes) {
+            weight -= weights[next];
+            ids[next] = id;
+            messages[next] = message;
+            weights[next] = payloadBytes + FRAME_OVERHEAD;
+            weight += weights[next];
+            next = (next + 1) % ids.length;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        synchronized int weight() {
+            return (int) Math.min(weight, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Frames after the one with this id, or null if it is not buffered
+         */
+        synchronized List<Message<?>> after(String id) {
+            int oldest = (next - size + ids.length) % ids.length;
+            for (int i = size - 1; i >= 0; i--) {
+                int index = (oldest + i) % ids.length;
+                if (id.equals(ids[index])) {
+                    List<Message<?>> missed = new ArrayList<>(size - 1 - i);
+                    for (int j = i + 1; j < size; j++) {
+                        missed.add(messages[(oldest + j) % ids.length]);
+                    }
+                    return missed;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.studyhub.chat_service.broker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.util.MimeType;
+
+/**
+ * Makes the per-instance simple broker behave like one broker across pods.
+ *
+ * Registered on the broker channel: every /topic/** and /user/** message sent
+ * on this instance is also published through the transport. Copies received
+ * from other instances are re-sent on the local broker channel, where the
+ * simple broker and user destination resolution deliver them to local
+ * sessions. Relayed copies are marked so they are never published again.
+ */
+@Slf4j
+public class ClusterBroadcastRelay implements ChannelInterceptor {
+
+    static final String RELAYED_HEADER = "clusterRelayed";
+
+    private static final String TOPIC_PREFIX = "/topic/";
+    private static final String USER_PREFIX = "/user/";
+
+    private final String instanceId;
+    private final BroadcastTransport transport;
+
+    public ClusterBroadcastRelay(String instanceId, BroadcastTransport transport) {
+        this.instanceId = instanceId;
+        this.transport = transport;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || message.getHeaders().containsKey(RELAYED_HEADER)
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !(destination.startsWith(TOPIC_PREFIX) || destination.startsWith(USER_PREFIX))) {
+            return message;
+        }
+
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+        try {
+            transport.publish(new RelayedBroadcast(
+                    instanceId,
+                    destination,
+                    contentType != null ? contentType.toString() : null,
+                    NativeMessageHeaderAccessor.getFirstNativeHeader(
+                            ChannelReplayBuffer.MESSAGE_ID_HEADER, message.getHeaders()),
+                    payload));
+        } catch (Exception e) {
+            // Local subscribers still get the message; remote ones miss it
+            log.error("Failed to relay broadcast to {}: {}", destination, e.getMessage(), e);
+        }
+        return message;
+    }
+
+    /**
+     * Deliver a broadcast received from the transport to local subscribers
+     */
+    public void deliver(RelayedBroadcast broadcast, MessageChannel brokerChannel) {
+        if (instanceId.equals(broadcast.originId())) {
+            return; // Already delivered locally when it was sent
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(broadcast.destination());
+        if (broadcast.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(broadcast.contentType()));
+        }
+        if (broadcast.messageId() != null) {
+            accessor.setNativeHeader(ChannelReplayBuffer.MESSAGE_ID_HEADER, broadcast.messageId());
+        }
+        accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+        accessor.setLeaveMutable(true);
+
+        brokerChannel.send(MessageBuilder.createMessage(broadcast.payload(), accessor.getMessageHeaders()));
+    }
+}
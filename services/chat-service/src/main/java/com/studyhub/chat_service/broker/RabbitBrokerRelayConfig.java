@@ -0,0 +1,193 @@
+package com.studyhub.chat_service.broker;
+
+import com.studyhub.chat_service.cache.CacheInvalidation;
+import com.studyhub.chat_service.cache.CacheInvalidationTransport;
+import com.studyhub.chat_service.cache.ClusterCacheInvalidator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageChannel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Relay mode for running more than one chat-service replica.
+ *
+ * Every instance keeps its in-memory STOMP broker for local sessions and
+ * shares broadcasts through a RabbitMQ fanout exchange; each instance consumes
+ * the exchange with its own auto-delete queue. Destinations stay the same as
+ * in simple mode, so clients are unaffected. Local cache invalidations (see
+ * ClusterCacheInvalidator) go through a second fanout exchange the same way.
+ *
+ * Enabled with app.websocket.broker.mode=relay.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "relay")
+public class RabbitBrokerRelayConfig {
+
+    static final String ORIGIN_HEADER = "x-chat-origin";
+    static final String DESTINATION_HEADER = "x-chat-destination";
+    static final String MESSAGE_ID_HEADER = "x-chat-message-id";
+    static final String CACHE_HEADER = "x-chat-cache";
+
+    @Bean
+    public ConnectionFactory brokerRelayConnectionFactory(
+            @Value("${app.websocket.broker.relay.host:localhost}") String host,
+            @Value("${app.websocket.broker.relay.port:5672}") int port,
+            @Value("${app.websocket.broker.relay.username:guest}") String username,
+            @Value("${app.websocket.broker.relay.password:guest}") String password,
+            @Value("${app.websocket.broker.relay.virtual-host:/}") String virtualHost) {
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory(host, port);
+        connectionFactory.setUsername(username);
+        connectionFactory.setPassword(password);
+        connectionFactory.setVirtualHost(virtualHost);
+        return connectionFactory;
+    }
+
+    @Bean
+    public RabbitAdmin brokerRelayRabbitAdmin(ConnectionFactory brokerRelayConnectionFactory) {
+        return new RabbitAdmin(brokerRelayConnectionFactory);
+    }
+
+    @Bean
+    public FanoutExchange broadcastExchange(
+            @Value("${app.websocket.broker.relay.exchange:chat.broadcast}") String exchangeName) {
+        return new FanoutExchange(exchangeName, true, false);
+    }
+
+    @Bean
+    public Queue broadcastQueue() {
+        // Exclusive, auto-delete queue per instance
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding broadcastBinding(@Qualifier("broadcastQueue") Queue broadcastQueue,
+            @Qualifier("broadcastExchange") FanoutExchange broadcastExchange) {
+        return BindingBuilder.bind(broadcastQueue).to(broadcastExchange);
+    }
+
+    @Bean
+    public ClusterBroadcastRelay clusterBroadcastRelay(ConnectionFactory brokerRelayConnectionFactory,
+            @Qualifier("broadcastExchange") FanoutExchange broadcastExchange) {
+        RabbitTemplate rabbitTemplate = new RabbitTemplate(brokerRelayConnectionFactory);
+        String instanceId = UUID.randomUUID().toString();
+        log.info("WebSocket broker relay enabled via exchange {} (instance {})", broadcastExchange.getName(), instanceId);
+
+        return new ClusterBroadcastRelay(instanceId,
+                broadcast -> rabbitTemplate.send(broadcastExchange.getName(), "", toAmqpMessage(broadcast)));
+    }
+
+    @Bean
+    public SimpleMessageListenerContainer broadcastListenerContainer(
+            ConnectionFactory brokerRelayConnectionFactory,
+            @Qualifier("broadcastQueue") Queue broadcastQueue,
+            ClusterBroadcastRelay clusterBroadcastRelay,
+            @Qualifier("brokerChannel") MessageChannel brokerChannel) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(brokerRelayConnectionFactory);
+        container.setQueues(broadcastQueue);
+        // A single consumer keeps per-destination ordering
+        container.setConcurrentConsumers(1);
+        container.setMessageListener(message ->
+                clusterBroadcastRelay.deliver(fromAmqpMessage(message), brokerChannel));
+        return container;
+    }
+
+    @Bean
+    public FanoutExchange invalidationExchange(
+            @Value("${app.websocket.broker.relay.invalidation-exchange:chat.cache-invalidation}") String exchangeName) {
+        return new FanoutExchange(exchangeName, true, false);
+    }
+
+    @Bean
+    public Queue invalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding invalidationBinding(@Qualifier("invalidationQueue") Queue invalidationQueue,
+            @Qualifier("invalidationExchange") FanoutExchange invalidationExchange) {
+        return BindingBuilder.bind(invalidationQueue).to(invalidationExchange);
+    }
+
+    @Bean
+    public CacheInvalidationTransport cacheInvalidationTransport(ConnectionFactory brokerRelayConnectionFactory,
+            @Qualifier("invalidationExchange") FanoutExchange invalidationExchange) {
+        RabbitTemplate rabbitTemplate = new RabbitTemplate(brokerRelayConnectionFactory);
+        return invalidation -> rabbitTemplate.send(invalidationExchange.getName(), "", toAmqpMessage(invalidation));
+    }
+
+    @Bean
+    public SimpleMessageListenerContainer invalidationListenerContainer(
+            ConnectionFactory brokerRelayConnectionFactory,
+            @Qualifier("invalidationQueue") Queue invalidationQueue,
+            ClusterCacheInvalidator clusterCacheInvalidator) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(brokerRelayConnectionFactory);
+        container.setQueues(invalidationQueue);
+        container.setConcurrentConsumers(1);
+        container.setMessageListener(message -> {
+            try {
+                clusterCacheInvalidator.receive(fromAmqpInvalidation(message));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring cache invalidation with invalid key: {}", e.getMessage());
+            }
+        });
+        return container;
+    }
+
+    static org.springframework.amqp.core.Message toAmqpMessage(RelayedBroadcast broadcast) {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(ORIGIN_HEADER, broadcast.originId());
+        properties.setHeader(DESTINATION_HEADER, broadcast.destination());
+        if (broadcast.messageId() != null) {
+            properties.setHeader(MESSAGE_ID_HEADER, broadcast.messageId());
+        }
+        if (broadcast.contentType() != null) {
+            properties.setContentType(broadcast.contentType());
+        }
+        return new org.springframework.amqp.core.Message(broadcast.payload(), properties);
+    }
+
+    static RelayedBroadcast fromAmqpMessage(org.springframework.amqp.core.Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        return new RelayedBroadcast(
+                properties.getHeader(ORIGIN_HEADER),
+                properties.getHeader(DESTINATION_HEADER),
+                properties.getContentType(),
+                properties.getHeader(MESSAGE_ID_HEADER),
+                message.getBody());
+    }
+
+    static org.springframework.amqp.core.Message toAmqpMessage(CacheInvalidation invalidation) {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(ORIGIN_HEADER, invalidation.originId());
+        properties.setHeader(CACHE_HEADER, invalidation.cache());
+        properties.setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+        return new org.springframework.amqp.core.Message(
+                invalidation.key().toString().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    static CacheInvalidation fromAmqpInvalidation(org.springframework.amqp.core.Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        return new CacheInvalidation(
+                properties.getHeader(ORIGIN_HEADER),
+                properties.getHeader(CACHE_HEADER),
+                Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,10 @@
+package com.studyhub.chat_service.broker;
+
+/**
+ * A broker message as it travels between chat-service instances: the already
+ * serialized payload plus the headers needed to re-deliver it locally.
+ * messageId is set for channel messages (see ChannelReplayBuffer).
+ */
+public record RelayedBroadcast(String originId, String destination, String contentType, String messageId,
+        byte[] payload) {
+}
@@ -0,0 +1,8 @@
+package com.studyhub.chat_service.cache;
+
+/**
+ * A cache entry to drop on every chat-service instance: the cache name (see
+ * ClusterCacheInvalidator) and the key, plus the instance that sent it
+ */
+public record CacheInvalidation(String originId, String cache, Long key) {
+}
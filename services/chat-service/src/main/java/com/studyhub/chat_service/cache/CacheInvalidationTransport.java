@@ -0,0 +1,11 @@
+package com.studyhub.chat_service.cache;
+
+/**
+ * Ships cache invalidations to every chat-service instance (including the
+ * sender, which ignores its own)
+ */
+@FunctionalInterface
+public interface CacheInvalidationTransport {
+
+    void publish(CacheInvalidation invalidation);
+}
@@ -0,0 +1,65 @@
+package com.studyhub.chat_service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Drops entries of local caches on the other chat-service instances.
+ *
+ * Caches register a handler under a name; publish sends the name and key
+ * through the CacheInvalidationTransport, and every other instance runs the
+ * handler registered under that name. Callers publish after their
+ * transaction commits.
+ *
+ * The transport exists in relay mode (app.websocket.broker.mode=relay, see
+ * RabbitBrokerRelayConfig), which is required for more than one replica; in
+ * simple mode there is a single instance and nothing to send.
+ */
+@Slf4j
+@Component
+public class ClusterCacheInvalidator {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ObjectProvider<CacheInvalidationTransport> transport;
+    private final Map<String, Consumer<Long>> handlers = new ConcurrentHashMap<>();
+
+    public ClusterCacheInvalidator(ObjectProvider<CacheInvalidationTransport> transport) {
+        this.transport = transport;
+    }
+
+    public void register(String cache, Consumer<Long> handler) {
+        handlers.put(cache, handler);
+    }
+
+    public void publish(String cache, Long key) {
+        transport.ifAvailable(available -> {
+            try {
+                available.publish(new CacheInvalidation(instanceId, cache, key));
+            } catch (Exception e) {
+                // Other instances keep the entry until their TTL expires it
+                log.error("Failed to publish invalidation of {} in {}: {}", key, cache, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Apply an invalidation received from the transport
+     */
+    public void receive(CacheInvalidation invalidation) {
+        if (instanceId.equals(invalidation.originId())) {
+            return; // Already applied locally
+        }
+        Consumer<Long> handler = handlers.get(invalidation.cache());
+        if (handler == null || invalidation.key() == null) {
+            log.warn("Ignoring invalidation for unknown cache {}", invalidation.cache());
+            return;
+        }
+        handler.accept(invalidation.key());
+    }
+}
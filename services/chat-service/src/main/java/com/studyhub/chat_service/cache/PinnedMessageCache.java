@@ -0,0 +1,84 @@
+package com.studyhub.chat_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Per-channel pinned messages, so opening a channel does not query messages.
+ *
+ * - Entries hold the parts of a message that are the same for every reader
+ * (content, sender, attachments); reactions are per user and are added by
+ * the caller on every read
+ * - Pin, unpin, edit and delete of a pinned message drop the channel; the
+ * drop is repeated after the transaction completes so a concurrent reader
+ * cannot re-cache the state from before the commit
+ * - After commit the drop is sent to the other instances through
+ * ClusterCacheInvalidator
+ * - The TTL bounds staleness of sender profiles, and of changes on other
+ * instances if an invalidation is lost
+ *
+ * Hit/miss counts are exported as cache.* metrics with
+ * cache=chat.pinned-messages.
+ */
+@Slf4j
+@Component
+public class PinnedMessageCache {
+
+    private static final String CACHE_NAME = "chat.pinned-messages";
+
+    private final Cache<Long, List<MessageResponse>> cache;
+    private final ClusterCacheInvalidator clusterInvalidator;
+
+    public PinnedMessageCache(MeterRegistry meterRegistry,
+            @Value("${app.pinned-cache.max-size:10000}") long maxSize,
+            @Value("${app.pinned-cache.ttl:PT10M}") Duration ttl,
+            ClusterCacheInvalidator clusterInvalidator) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.clusterInvalidator = clusterInvalidator;
+        clusterInvalidator.register(CACHE_NAME, cache::invalidate);
+    }
+
+    /**
+     * Pinned messages of a channel, loading them on a miss. The returned list
+     * and its elements are shared and must not be modified.
+     */
+    public List<MessageResponse> get(Long channelId, Function<Long, List<MessageResponse>> loader) {
+        return cache.get(channelId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    public void invalidate(Long channelId) {
+        log.debug("Invalidating cached pinned messages for channel: {}", channelId);
+        cache.invalidate(channelId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clusterInvalidator.publish(CACHE_NAME, channelId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidate(channelId);
+                if (status == STATUS_COMMITTED) {
+                    clusterInvalidator.publish(CACHE_NAME, channelId);
+                }
+            }
+        });
+    }
+}
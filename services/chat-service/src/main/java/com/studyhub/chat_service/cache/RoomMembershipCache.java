@@ -0,0 +1,81 @@
+package com.studyhub.chat_service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.studyhub.chat_service.repository.RoomMemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-room membership index used for authorization checks.
+ *
+ * - A room's members and owners are loaded with one query on first use;
+ * isMember, isOwner and memberCount are then answered in memory
+ * - A membership change drops the room when it is made and again when its
+ * transaction completes, so no snapshot from before the commit stays cached
+ * (see RoomMembershipEventRelay)
+ * - Other instances drop the room after commit through
+ * ClusterCacheInvalidator and reload it on next use; the TTL is a backstop
+ * for invalidations lost in transit
+ *
+ * Hit/miss counts are exported as cache.* metrics with
+ * cache=chat.room-membership.
+ */
+@Slf4j
+@Component
+public class RoomMembershipCache {
+
+    private static final String CACHE_NAME = "chat.room-membership";
+
+    private final LoadingCache<Long, RoomMembers> cache;
+
+    public RoomMembershipCache(RoomMemberRepository roomMemberRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.membership-cache.max-size:10000}") long maxSize,
+            @Value("${app.membership-cache.ttl:PT10M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(roomId -> load(roomMemberRepository, roomId));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean isMember(Long roomId, Long userId) {
+        return cache.get(roomId).ownerByUser().containsKey(userId);
+    }
+
+    public boolean isOwner(Long roomId, Long userId) {
+        return Boolean.TRUE.equals(cache.get(roomId).ownerByUser().get(userId));
+    }
+
+    public int memberCount(Long roomId) {
+        return cache.get(roomId).ownerByUser().size();
+    }
+
+    public void invalidate(Long roomId) {
+        log.debug("Invalidating cached membership for room: {}", roomId);
+        cache.invalidate(roomId);
+    }
+
+    private static RoomMembers load(RoomMemberRepository roomMemberRepository, Long roomId) {
+        Map<Long, Boolean> ownerByUser = new HashMap<>();
+        for (Object[] row : roomMemberRepository.findMemberFlagsByRoomId(roomId)) {
+            ownerByUser.put((Long) row[0], Boolean.TRUE.equals(row[1]));
+        }
+        return new RoomMembers(Map.copyOf(ownerByUser));
+    }
+
+    /**
+     * Immutable snapshot: userId -> isOwner
+     */
+    private record RoomMembers(Map<Long, Boolean> ownerByUser) {
+    }
+}
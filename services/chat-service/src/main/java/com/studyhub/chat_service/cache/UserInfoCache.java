@@ -0,0 +1,118 @@
+package com.studyhub.chat_service.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.studyhub.chat_service.client.UserClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded, TTL-based cache of sender profiles fetched from user-service.
+ *
+ * - Hits never leave the process; misses for a page are loaded with one
+ * batched call - IDs user-service does not know are cached as misses for a
+ * shorter TTL - Concurrent requests for the same user share one in-flight load
+ * - Entries are dropped on profile updates (see UserProfileEventListener)
+ *
+ * Hit/miss/eviction counts are exported as cache.* metrics with
+ * cache=chat.user-info.
+ */
+@Slf4j
+@Component
+public class UserInfoCache {
+
+    private static final String CACHE_NAME = "chat.user-info";
+
+    private final UserClient userClient;
+    private final AsyncCache<Long, CachedUser> cache;
+
+    public UserInfoCache(UserClient userClient,
+            MeterRegistry meterRegistry,
+            @Value("${app.user-cache.max-size:10000}") long maxSize,
+            @Value("${app.user-cache.ttl:PT5M}") Duration ttl,
+            @Value("${app.user-cache.negative-ttl:PT30S}") Duration negativeTtl) {
+        this.userClient = userClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new CachedUserExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Resolve many users at once. Unknown users are absent from the result.
+     *
+     * @throws java.util.concurrent.CompletionException if user-service cannot
+     * be reached for the users that are not cached
+     */
+    public Map<Long, UserClient.UserInfo> getAll(Set<Long> userIds) {
+        Map<Long, CachedUser> entries = cache.getAll(userIds, (missing, executor) -> {
+            try {
+                return CompletableFuture.completedFuture(load(missing));
+            } catch (Exception e) {
+                // Failed loads are not cached, the next request retries
+                return CompletableFuture.failedFuture(e);
+            }
+        }).join();
+
+        Map<Long, UserClient.UserInfo> users = new HashMap<>();
+        entries.forEach((userId, entry) -> {
+            if (entry.userInfo() != null) {
+                users.put(userId, entry.userInfo());
+            }
+        });
+        return users;
+    }
+
+    public void invalidate(Long userId) {
+        log.debug("Invalidating cached user info for userId: {}", userId);
+        cache.synchronous().invalidate(userId);
+    }
+
+    private Map<Long, CachedUser> load(Set<? extends Long> userIds) {
+        Map<Long, CachedUser> loaded = new HashMap<>();
+        for (UserClient.UserInfo userInfo : userClient.getUsersByIds(new ArrayList<>(userIds))) {
+            loaded.put(userInfo.getId(), new CachedUser(userInfo));
+        }
+        // Negative-cache IDs that user-service does not know about
+        for (Long userId : userIds) {
+            loaded.putIfAbsent(userId, CachedUser.MISSING);
+        }
+        return loaded;
+    }
+
+    private record CachedUser(UserClient.UserInfo userInfo) {
+
+        static final CachedUser MISSING = new CachedUser(null);
+    }
+
+    private record CachedUserExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<Long, CachedUser> {
+
+        @Override
+        public long expireAfterCreate(Long key, CachedUser value, long currentTime) {
+            return value.userInfo() != null ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, CachedUser value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, CachedUser value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
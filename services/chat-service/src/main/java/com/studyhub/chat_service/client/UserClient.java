@@ -3,6 +3,10 @@ package com.studyhub.chat_service.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "user-service", url = "${user-service.url:http://localhost:8081}")
 public interface UserClient {
@@ -10,6 +14,12 @@ public interface UserClient {
     @GetMapping("/api/v1/users/{userId}")
     UserInfo getUserById(@PathVariable("userId") Long userId);
 
+    /**
+     * Compact info for many users in one call; unknown IDs are omitted
+     */
+    @GetMapping("/api/v1/users/batch")
+    List<UserInfo> getUsersByIds(@RequestParam("ids") Collection<Long> userIds);
+
     @GetMapping("/api/v1/users/keycloak/{keycloakId}")
     UserInfo getUserByKeycloakId(@PathVariable("keycloakId") String keycloakId);
 
@@ -0,0 +1,65 @@
+package com.studyhub.chat_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fails startup when an index the repository queries depend on is missing.
+ *
+ * Flyway validates that every migration ran unchanged and Hibernate
+ * (ddl-auto: validate) checks tables and columns, but neither notices an
+ * index dropped or never created by hand. Without these the hot queries fall
+ * back to sequential scans, so a missing one is treated as drift.
+ *
+ * Only runs against PostgreSQL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexCheck implements SmartInitializingSingleton {
+
+    static final List<String> REQUIRED_INDEXES = List.of(
+            "idx_message_attachments_message",  // MessageAttachmentRepository.findByMessageIdIn
+            "idx_channels_room",                // ChannelRepository.findByRoomIdOrderByIdAsc
+            "idx_messages_channel_history",     // MessageRepository history pages
+            "idx_rooms_public_directory",       // RoomRepository public directory
+            "idx_room_members_user",            // RoomRepository / RoomMemberRepository by user
+            "idx_messages_channel_id_live",     // RoomMemberRepository.findUnreadCountsByUserId
+            "idx_rooms_type_members",           // RoomRepository summaries by room type
+            "idx_messages_channel_pinned",      // MessageRepository pinned list and count
+            "idx_messages_content_tsv",         // MessageSearchRepository.search
+            "uk_rooms_dm_key");                 // RoomRepository.findByDmKey
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaIndexCheck(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.debug("Skipping index check on {}", database);
+            return;
+        }
+
+        Set<String> missing = new HashSet<>(REQUIRED_INDEXES);
+        missing.removeAll(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class));
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Database schema has drifted, missing indexes: " + missing
+                    + ". Run the Flyway migrations or restore the indexes.");
+        }
+        log.info("Schema index check passed ({} indexes)", REQUIRED_INDEXES.size());
+    }
+}
@@ -0,0 +1,208 @@
+package com.studyhub.chat_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studyhub.chat_service.dto.response.RateLimitError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-user rate limit on inbound STOMP SEND frames, so one client cannot
+ * flood the message path (a transaction per message) or the typing path.
+ *
+ * - Each user has one token bucket for messages and one for typing events
+ * (destinations ending in /typing), sized by app.websocket.rate-limit.*
+ * - Buckets are lock-free: one CAS on the time the bucket is full again
+ * - Frames over the limit are dropped before they reach a handler; the
+ * session gets one RateLimitError on /user/queue/errors per burst
+ * - Drops are exported as chat.websocket.rate-limited, tagged by type
+ *
+ * A STOMP ERROR frame is not used since it closes the connection.
+ */
+@Slf4j
+@Component
+public class SendRateLimitInterceptor implements ChannelInterceptor {
+
+    /**
+     * Clients subscribe to /user/queue/errors to receive RateLimitErrors
+     */
+    public static final String ERROR_DESTINATION = "/queue/errors";
+
+    private static final String CACHE_NAME = "chat.rate-limit";
+    private static final String TYPING_SUFFIX = "/typing";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Clock clock;
+    private final Limit messageLimit;
+    private final Limit typingLimit;
+    private final Cache<Long, UserBuckets> buckets;
+    private final Function<Long, UserBuckets> newBuckets;
+    private final Counter messagesRejected;
+    private final Counter typingRejected;
+
+    @Autowired
+    public SendRateLimitInterceptor(@Lazy SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.websocket.rate-limit.messages.per-second:10}") double messagesPerSecond,
+            @Value("${app.websocket.rate-limit.messages.burst:20}") int messageBurst,
+            @Value("${app.websocket.rate-limit.typing.per-second:4}") double typingPerSecond,
+            @Value("${app.websocket.rate-limit.typing.burst:8}") int typingBurst,
+            @Value("${app.websocket.rate-limit.max-users:100000}") long maxUsers,
+            @Value("${app.websocket.rate-limit.idle-expiry:PT10M}") Duration idleExpiry) {
+        this(messagingTemplate, meterRegistry, Limit.of(messagesPerSecond, messageBurst),
+                Limit.of(typingPerSecond, typingBurst), maxUsers, idleExpiry, Clock.systemUTC());
+    }
+
+    SendRateLimitInterceptor(SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            Limit messageLimit,
+            Limit typingLimit,
+            long maxUsers,
+            Duration idleExpiry,
+            Clock clock) {
+        this.messagingTemplate = messagingTemplate;
+        this.clock = clock;
+        this.messageLimit = messageLimit;
+        this.typingLimit = typingLimit;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleExpiry)
+                .recordStats()
+                .build();
+        this.newBuckets = userId -> new UserBuckets();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+
+        this.messagesRejected = rejectedCounter(meterRegistry, "messages");
+        this.typingRejected = rejectedCounter(meterRegistry, "typing");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("chat.websocket.rate-limited")
+                .description("Inbound SEND frames dropped for exceeding the sender's rate limit")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        Long userId = WebSocketAuthInterceptor.sessionUserId(headers);
+        if (userId == null) {
+            // Unauthenticated sessions are refused by the handlers before any database work
+            return message;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        boolean typing = destination != null && destination.endsWith(TYPING_SUFFIX);
+        UserBuckets userBuckets = buckets.get(userId, newBuckets);
+        Bucket bucket = typing ? userBuckets.typing : userBuckets.messages;
+        Limit limit = typing ? typingLimit : messageLimit;
+
+        long now = TimeUnit.MILLISECONDS.toNanos(clock.millis());
+        long waitNanos = bucket.tryAcquire(limit, now);
+        if (waitNanos == 0) {
+            return message;
+        }
+
+        (typing ? typingRejected : messagesRejected).increment();
+        if (bucket.markNotified()) {
+            log.debug("Rate limiting user {} on {}", userId, destination);
+            notifySession(SimpMessageHeaderAccessor.getSessionId(headers), destination,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+        }
+        return null;
+    }
+
+    private void notifySession(String sessionId, String destination, long retryAfterMillis) {
+        if (sessionId == null) {
+            return;
+        }
+        // The session-specific form of /user/queue/errors, see DefaultUserDestinationResolver
+        messagingTemplate.convertAndSend(ERROR_DESTINATION + "-user" + sessionId, RateLimitError.builder()
+                .error(RateLimitError.ERROR)
+                .destination(destination)
+                .retryAfterMillis(retryAfterMillis)
+                .build());
+    }
+
+    /**
+     * Sustained rate and burst size of one bucket
+     */
+    record Limit(long nanosPerToken, long burstNanos) {
+
+        static Limit of(double perSecond, int burst) {
+            long nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            return new Limit(nanosPerToken, nanosPerToken * burst);
+        }
+    }
+
+    private static final class UserBuckets {
+
+        final Bucket messages = new Bucket();
+        final Bucket typing = new Bucket();
+    }
+
+    /**
+     * Token bucket kept as the time it is full again (GCRA): taking a token
+     * pushes that time one token interval later, and a frame is refused when
+     * it would land more than a burst ahead of now
+     */
+    private static final class Bucket {
+
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+        private volatile boolean notified;
+
+        /**
+         * 0 if a token was taken, otherwise nanos until one is available
+         */
+        long tryAcquire(Limit limit, long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + limit.nanosPerToken();
+                long excess = next - now - limit.burstNanos();
+                if (excess > 0) {
+                    return excess;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    if (notified) {
+                        notified = false;
+                    }
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * True for the first refusal since the last accepted frame
+         */
+        boolean markNotified() {
+            if (notified) {
+                return false;
+            }
+            notified = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.studyhub.chat_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts sessions closed because they could not keep up with outbound
+ * messages.
+ *
+ * Spring closes a session with SESSION_NOT_RELIABLE in two cases:
+ * - it exceeded the send time or send buffer limit, so the outbound threads
+ * are not held up for the rest of the room (reason=slow-consumer)
+ * - it sent no frame, not even CONNECT, within the time-to-first-message
+ * limit (reason=no-connect)
+ *
+ * Spring only applies the time-to-first-message limit to sessions that have
+ * not sent anything, so a session that has sent a frame was dropped for being
+ * slow. Drops are exported as chat.websocket.sessions.dropped.
+ */
+@Slf4j
+@Component
+public class SlowSessionDropCounter implements WebSocketHandlerDecoratorFactory {
+
+    private final Counter slowConsumers;
+    private final Counter noConnect;
+    private final Set<String> activeSessions = ConcurrentHashMap.newKeySet();
+
+    public SlowSessionDropCounter(MeterRegistry meterRegistry) {
+        this.slowConsumers = Counter.builder("chat.websocket.sessions.dropped")
+                .description("WebSocket sessions closed for exceeding the send time or buffer limit")
+                .tag("reason", "slow-consumer")
+                .register(meterRegistry);
+        this.noConnect = Counter.builder("chat.websocket.sessions.dropped")
+                .description("WebSocket sessions closed for sending no frame within the time-to-first-message limit")
+                .tag("reason", "no-connect")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                activeSessions.add(session.getId());
+                super.handleMessage(session, message);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                boolean active = activeSessions.remove(session.getId());
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    if (active) {
+                        slowConsumers.increment();
+                        log.warn("Dropped slow WebSocket session {}", session.getId());
+                    } else {
+                        noConnect.increment();
+                        log.debug("Dropped WebSocket session {} that never sent CONNECT", session.getId());
+                    }
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+}
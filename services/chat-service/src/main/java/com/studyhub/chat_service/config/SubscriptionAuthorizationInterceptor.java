@@ -0,0 +1,95 @@
+package com.studyhub.chat_service.config;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Only lets room members SUBSCRIBE to a room's topics.
+ *
+ * - /topic/rooms/{roomId} and everything below it: the session's user must
+ * be a member, checked against RoomMembershipCache
+ * - /user/...: allowed, the broker resolves it to the session's own queue
+ * - anything else, including raw /queue destinations of other sessions:
+ * rejected
+ *
+ * A rejected SUBSCRIBE is answered with a STOMP ERROR frame. Every other
+ * frame returns after one header lookup, without allocating or logging.
+ */
+@Slf4j
+@Component
+public class SubscriptionAuthorizationInterceptor implements ChannelInterceptor {
+
+    static final String ROOM_TOPIC_PREFIX = "/topic/rooms/";
+    static final String USER_PREFIX = "/user/";
+
+    private static final int MAX_ROOM_ID_DIGITS = 18;
+
+    private final RoomMembershipCache membershipCache;
+    private final Counter rejected;
+
+    public SubscriptionAuthorizationInterceptor(RoomMembershipCache membershipCache, MeterRegistry meterRegistry) {
+        this.membershipCache = membershipCache;
+        this.rejected = Counter.builder("chat.websocket.subscriptions.rejected")
+                .description("SUBSCRIBE frames refused because the user may not read the destination")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.SUBSCRIBE) {
+            return message;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination != null && destination.startsWith(USER_PREFIX)) {
+            return message;
+        }
+
+        long roomId = destination != null ? roomIdOf(destination) : -1;
+        Long userId = WebSocketAuthInterceptor.sessionUserId(headers);
+        if (roomId < 0 || userId == null || !membershipCache.isMember(roomId, userId)) {
+            rejected.increment();
+            log.debug("Rejected SUBSCRIBE to {} by user {}", destination, userId);
+            throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+        }
+        return message;
+    }
+
+    /**
+     * The roomId in /topic/rooms/{roomId} or /topic/rooms/{roomId}/..., or -1
+     */
+    static long roomIdOf(String destination) {
+        if (!destination.startsWith(ROOM_TOPIC_PREFIX)) {
+            return -1;
+        }
+        int start = ROOM_TOPIC_PREFIX.length();
+        int end = destination.indexOf('/', start);
+        if (end < 0) {
+            end = destination.length();
+        }
+        if (end == start || end - start > MAX_ROOM_ID_DIGITS) {
+            return -1;
+        }
+
+        long roomId = 0;
+        for (int i = start; i < end; i++) {
+            char c = destination.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            roomId = roomId * 10 + (c - '0');
+        }
+        return roomId;
+    }
+}
@@ -1,19 +1,23 @@
 package com.studyhub.chat_service.config;
 
+import com.studyhub.chat_service.util.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
-import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 /**
  * Intercepts WebSocket messages to extract and validate JWT from STOMP headers
  */
@@ -21,6 +25,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
+    /**
+     * Session attribute holding the resolved StudyHub userId, so SEND frames
+     * never need to map the JWT subject again
+     */
+    public static final String SESSION_USER_ID = "userId";
+
     private final JwtDecoder jwtDecoder;
 
     public WebSocketAuthInterceptor(JwtDecoder jwtDecoder) {
@@ -29,64 +39,82 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        // Only CONNECT carries credentials; every other frame passes straight
+        // through. STOMP handlers read the user from the session, not from
+        // SecurityContextHolder, so nothing needs restoring per frame.
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.CONNECT) {
+            return message;
+        }
+
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+
+            try {
+                // Decode and validate JWT
+                Jwt jwt = jwtDecoder.decode(token);
+
+                // Create authentication
+                UsernamePasswordAuthenticationToken authentication
+                        = new UsernamePasswordAuthenticationToken(jwt, null, null);
+
+                // Store in accessor user for this WebSocket session
+                accessor.setUser(authentication);
+
+                // Store JWT in session attributes for subsequent messages
+                accessor.getSessionAttributes().put("jwt", jwt);
+                accessor.getSessionAttributes().put("authentication", authentication);
+                storeUserId(accessor, jwt);
 
-        if (accessor != null) {
-            // Handle CONNECT - extract and validate JWT
-            if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-                String authHeader = accessor.getFirstNativeHeader("Authorization");
-
-                if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String token = authHeader.substring(7);
-
-                    try {
-                        // Decode and validate JWT
-                        Jwt jwt = jwtDecoder.decode(token);
-
-                        // Create authentication
-                        UsernamePasswordAuthenticationToken authentication
-                                = new UsernamePasswordAuthenticationToken(jwt, null, null);
-
-                        // Store in accessor user for this WebSocket session
-                        accessor.setUser(authentication);
-
-                        // Store JWT in session attributes for subsequent messages
-                        accessor.getSessionAttributes().put("jwt", jwt);
-                        accessor.getSessionAttributes().put("authentication", authentication);
-
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                        log.info("WebSocket authenticated with JWT for user: {}", jwt.getSubject());
-
-                    } catch (JwtException e) {
-                        log.error("Invalid JWT token in WebSocket connection: {}", e.getMessage());
-                        throw new IllegalArgumentException("Invalid JWT token");
-                    }
-                } else {
-                    log.warn("No Authorization header found in WebSocket CONNECT");
-                }
-            } // For all other messages (SEND, SUBSCRIBE), restore authentication from session
-            else {
-                log.info("Processing {} message - session attributes: {}", 
-                    accessor.getCommand(), 
-                    accessor.getSessionAttributes() != null ? "present" : "null");
-                
-                if (accessor.getSessionAttributes() != null) {
-                    UsernamePasswordAuthenticationToken authentication
-                            = (UsernamePasswordAuthenticationToken) accessor.getSessionAttributes().get("authentication");
-
-                    if (authentication != null) {
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        log.info("✅ Restored authentication for WebSocket message: {}", accessor.getCommand());
-                    } else {
-                        log.error("❌ Authentication not found in session for message: {}", accessor.getCommand());
-                    }
-                } else {
-                    log.error("❌ Session attributes are null for message: {}", accessor.getCommand());
-                }
+                log.info("WebSocket authenticated with JWT for user: {}", jwt.getSubject());
+
+            } catch (JwtException e) {
+                log.error("Invalid JWT token in WebSocket connection: {}", e.getMessage());
+                throw new IllegalArgumentException("Invalid JWT token");
             }
+        } else {
+            log.warn("No Authorization header found in WebSocket CONNECT");
         }
 
         return message;
     }
+
+    /**
+     * The userId resolved at CONNECT, or from the session's JWT if that
+     * failed; null for unauthenticated sessions
+     */
+    public static Long sessionUserId(MessageHeaders headers) {
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(headers);
+        if (attributes == null) {
+            return null;
+        }
+        if (attributes.get(SESSION_USER_ID) instanceof Long userId) {
+            return userId;
+        }
+        if (attributes.get("jwt") instanceof Jwt jwt) {
+            try {
+                Long userId = JwtUtil.getUserIdFromJwt(jwt);
+                attributes.put(SESSION_USER_ID, userId);
+                return userId;
+            } catch (IllegalStateException e) {
+                log.warn("Could not resolve userId for WebSocket session: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void storeUserId(StompHeaderAccessor accessor, Jwt jwt) {
+        try {
+            accessor.getSessionAttributes().put(SESSION_USER_ID, JwtUtil.getUserIdFromJwt(jwt));
+        } catch (IllegalStateException e) {
+            // Not fatal: handlers fall back to resolving the userId from the JWT
+            log.warn("Could not resolve userId at WebSocket CONNECT: {}", e.getMessage());
+        }
+    }
 }
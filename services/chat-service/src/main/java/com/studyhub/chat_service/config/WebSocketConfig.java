@@ -1,30 +1,100 @@
 package com.studyhub.chat_service.config;
 
+import com.studyhub.chat_service.broker.BinaryPayloadNegotiation;
+import com.studyhub.chat_service.broker.ChannelReplayBuffer;
+import com.studyhub.chat_service.broker.ClusterBroadcastRelay;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final SubscriptionAuthorizationInterceptor subscriptionAuthorizationInterceptor;
+    private final SendRateLimitInterceptor sendRateLimitInterceptor;
+    private final ObjectProvider<ClusterBroadcastRelay> clusterBroadcastRelay;
+    private final SlowSessionDropCounter slowSessionDropCounter;
+    private final ChannelReplayBuffer channelReplayBuffer;
+    private final BinaryPayloadNegotiation binaryPayloadNegotiation;
+
+    @Value("${app.websocket.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.websocket.executor.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.executor.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.executor.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.executor.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.executor.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.executor.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.websocket.transport.send-time-limit:PT10S}")
+    private Duration sendTimeLimit;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:512KB}")
+    private DataSize sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.message-size-limit:64KB}")
+    private DataSize messageSizeLimit;
+
+    @Value("${app.websocket.transport.time-to-first-message:PT60S}")
+    private Duration timeToFirstMessage;
 
-    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor) {
+    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor,
+            SubscriptionAuthorizationInterceptor subscriptionAuthorizationInterceptor,
+            SendRateLimitInterceptor sendRateLimitInterceptor,
+            ObjectProvider<ClusterBroadcastRelay> clusterBroadcastRelay,
+            SlowSessionDropCounter slowSessionDropCounter,
+            ChannelReplayBuffer channelReplayBuffer,
+            BinaryPayloadNegotiation binaryPayloadNegotiation) {
         this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+        this.subscriptionAuthorizationInterceptor = subscriptionAuthorizationInterceptor;
+        this.sendRateLimitInterceptor = sendRateLimitInterceptor;
+        this.clusterBroadcastRelay = clusterBroadcastRelay;
+        this.slowSessionDropCounter = slowSessionDropCounter;
+        this.channelReplayBuffer = channelReplayBuffer;
+        this.binaryPayloadNegotiation = binaryPayloadNegotiation;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // Enable simple in-memory broker for development
-        // Clients subscribe to /topic/... destinations
-        registry.enableSimpleBroker("/topic");
+        // Simple in-memory broker for sessions connected to this instance
+        // Clients subscribe to /topic/... and /user/queue/... destinations
+        registry.enableSimpleBroker("/topic", "/queue");
+
+        // Relay mode (app.websocket.broker.mode=relay): share broadcasts with other instances
+        clusterBroadcastRelay.ifAvailable(relay -> registry.configureBrokerChannel().interceptors(relay));
+
+        // Keep recent channel messages, local and relayed, for clients resuming after a reconnect
+        registry.configureBrokerChannel().interceptors(channelReplayBuffer.recorder());
 
         // Clients send messages to /app/... destinations
         registry.setApplicationDestinationPrefixes("/app");
+
+        // Keep per-session order now that the outbound channel is multi-threaded
+        registry.setPreservePublishOrder(true);
     }
 
     @Override
@@ -37,7 +107,44 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        // Register JWT interceptor for WebSocket messages
-        registration.interceptors(webSocketAuthInterceptor);
+        // Register JWT interceptor for WebSocket messages, refuse SUBSCRIBE
+        // to rooms the user is not in, drop SENDs over the user's rate limit,
+        // and replay missed channel messages once a resuming SUBSCRIBE is
+        // registered; CONNECT may negotiate CBOR or Smile payloads
+        registration.interceptors(webSocketAuthInterceptor, subscriptionAuthorizationInterceptor,
+                sendRateLimitInterceptor, binaryPayloadNegotiation.negotiator(), channelReplayBuffer.resumer());
+        configureExecutor(registration, "clientInboundChannel-",
+                inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Sessions that negotiated a binary format get their JSON frames transcoded
+        registration.interceptors(binaryPayloadNegotiation.transcoder());
+        configureExecutor(registration, "clientOutboundChannel-",
+                outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session that exceeds the send time or buffer limit is closed instead
+        // of holding outbound threads for everyone else in the room
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes())
+                .setMessageSizeLimit((int) messageSizeLimit.toBytes())
+                .setTimeToFirstMessage((int) timeToFirstMessage.toMillis())
+                .addDecoratorFactory(slowSessionDropCounter);
+    }
+
+    private void configureExecutor(ChannelRegistration registration, String threadNamePrefix,
+            int corePoolSize, int maxPoolSize, int queueCapacity) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor(threadNamePrefix));
+            return;
+        }
+        registration.taskExecutor()
+                .corePoolSize(corePoolSize)
+                .maxPoolSize(maxPoolSize)
+                .queueCapacity(queueCapacity);
     }
 }
@@ -1,9 +1,12 @@
 package com.studyhub.chat_service.controller;
 
+import com.studyhub.chat_service.config.WebSocketAuthInterceptor;
 import com.studyhub.chat_service.dto.request.SendMessageRequest;
+import com.studyhub.chat_service.dto.response.MessageAck;
 import com.studyhub.chat_service.dto.response.MessageResponse;
 import com.studyhub.chat_service.dto.response.TypingEvent;
-import com.studyhub.chat_service.service.MessageService;
+import com.studyhub.chat_service.service.MessageIngestService;
+import com.studyhub.chat_service.service.TypingIndicatorService;
 import com.studyhub.chat_service.util.JwtUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,13 +14,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
-import java.time.Instant;
+import java.util.Map;
 
 /**
  * WebSocket controller for real-time chat operations.
@@ -35,7 +39,8 @@ import java.time.Instant;
 @RequiredArgsConstructor
 public class ChatWebSocketController {
 
-    private final MessageService messageService;
+    private final MessageIngestService messageIngestService;
+    private final TypingIndicatorService typingIndicatorService;
     private final SimpMessagingTemplate messagingTemplate;
 
     /**
@@ -48,20 +53,19 @@ public class ChatWebSocketController {
             @DestinationVariable Long roomId,
             @DestinationVariable Long channelId,
             @Valid SendMessageRequest request,
-            Principal principal) {
+            Principal principal,
+            SimpMessageHeaderAccessor headerAccessor) {
 
-        // Extract JWT from Principal (set by WebSocketAuthInterceptor)
-        UsernamePasswordAuthenticationToken auth = (UsernamePasswordAuthenticationToken) principal;
-        Jwt jwt = (Jwt) auth.getPrincipal();
-        Long userId = JwtUtil.getUserIdFromJwt(jwt);
+        Long userId = resolveUserId(principal, headerAccessor);
         
         log.info("WebSocket message received for channel: {} in room: {} from user: {}", channelId, roomId, userId);
 
         try {
-            // Save message to database
-            MessageResponse message = messageService.sendMessage(roomId, channelId, request, userId);
-            log.info("Message saved and broadcasted to /topic/rooms/{}/channels/{}", roomId, channelId);
-            // No explicit return: broadcasting is handled in MessageService to avoid double-send
+            // Save (or queue for write-behind) and acknowledge on /user/queue/messages/ack
+            MessageAck ack = messageIngestService.submit(roomId, channelId, request, userId);
+            log.info("Message {} {} for /topic/rooms/{}/channels/{}", ack.getMessageId(), ack.getStatus(), roomId, channelId);
+            typingIndicatorService.stoppedTyping(roomId, channelId, userId);
+            // No explicit return: broadcasting is handled by the ingest path to avoid double-send
 
         } catch (Exception e) {
             log.error("Error processing WebSocket message: {}", e.getMessage(), e);
@@ -72,41 +76,45 @@ public class ChatWebSocketController {
     /**
      * Handle typing indicators via WebSocket. Client sends to:
      * /app/rooms/{roomId}/channels/{channelId}/typing 
-     * Broadcast to: /topic/rooms/{roomId}/channels/{channelId}/typing
+     * Broadcast to: /topic/rooms/{roomId}/channels/{channelId}/typing as a
+     * throttled TypingSnapshot (see TypingIndicatorService)
      */
     @MessageMapping("/rooms/{roomId}/channels/{channelId}/typing")
     public void handleTypingIndicator(
             @DestinationVariable Long roomId,
             @DestinationVariable Long channelId,
             TypingEvent typingEvent,
-            Principal principal) {
+            Principal principal,
+            SimpMessageHeaderAccessor headerAccessor) {
 
-        // Extract JWT from Principal
-        UsernamePasswordAuthenticationToken auth = (UsernamePasswordAuthenticationToken) principal;
-        Jwt jwt = (Jwt) auth.getPrincipal();
-        Long userId = JwtUtil.getUserIdFromJwt(jwt);
+        Long userId = resolveUserId(principal, headerAccessor);
 
         log.debug("Typing indicator for channel: {} in room: {} from user: {}", channelId, roomId, userId);
 
         try {
-            // Validate membership (optional, can cache this)
-            // For now, just broadcast the typing event
-
-            // Set server timestamp
-            TypingEvent event = TypingEvent.builder()
-                    .userId(typingEvent.getUserId())
-                    .username(typingEvent.getUsername())
-                    .timestamp(Instant.now())
-                    .build();
-
-            // Broadcast to all subscribers except sender
-            messagingTemplate.convertAndSend("/topic/rooms/" + roomId + "/channels/" + channelId + "/typing", event);
-
+            typingIndicatorService.typing(roomId, channelId, userId, typingEvent.getUsername());
         } catch (Exception e) {
             log.error("Error processing typing indicator: {}", e.getMessage());
         }
     }
 
+    /**
+     * Use the userId resolved at CONNECT (see WebSocketAuthInterceptor) and
+     * only fall back to the JWT in the Principal if it is missing
+     */
+    private Long resolveUserId(Principal principal, SimpMessageHeaderAccessor headerAccessor) {
+        Map<String, Object> sessionAttributes = headerAccessor.getSessionAttributes();
+        if (sessionAttributes != null
+                && sessionAttributes.get(WebSocketAuthInterceptor.SESSION_USER_ID) instanceof Long userId) {
+            return userId;
+        }
+
+        // Extract JWT from Principal (set by WebSocketAuthInterceptor)
+        UsernamePasswordAuthenticationToken auth = (UsernamePasswordAuthenticationToken) principal;
+        Jwt jwt = (Jwt) auth.getPrincipal();
+        return JwtUtil.getUserIdFromJwt(jwt);
+    }
+
     /**
      * Alternative method: Send message to specific user (private message). Not
      * used in current implementation but useful for notifications.
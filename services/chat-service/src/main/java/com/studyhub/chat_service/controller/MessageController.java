@@ -2,7 +2,10 @@ package com.studyhub.chat_service.controller;
 
 import com.studyhub.chat_service.dto.request.AddReactionRequest;
 import com.studyhub.chat_service.dto.request.EditMessageRequest;
+import com.studyhub.chat_service.dto.response.MessageHistoryResponse;
 import com.studyhub.chat_service.dto.response.MessageResponse;
+import com.studyhub.chat_service.dto.response.MessageSearchResponse;
+import com.studyhub.chat_service.service.MessageSearchService;
 import com.studyhub.chat_service.service.MessageService;
 import com.studyhub.chat_service.util.JwtUtil;
 import com.studyhub.common.dto.ApiResponse;
@@ -24,6 +27,7 @@ import java.util.List;
 public class MessageController {
 
     private final MessageService messageService;
+    private final MessageSearchService messageSearchService;
 
     @GetMapping("/channels/{channelId}")
     public ResponseEntity<ApiResponse<Page<MessageResponse>>> getMessageHistory(
@@ -38,6 +42,33 @@ public class MessageController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/channels/{channelId}/history")
+    public ResponseEntity<ApiResponse<MessageHistoryResponse>> getMessageHistoryByCursor(
+            @PathVariable Long channelId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+        Long userId = JwtUtil.getUserIdFromJwt();
+        log.info("GET /api/v1/messages/channels/{}/history - Getting history for user: {}", channelId, userId);
+
+        MessageHistoryResponse response = messageService.getMessageHistoryByCursor(channelId, userId, before, after, size);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<MessageSearchResponse>> searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) Long channelId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int size) {
+        Long userId = JwtUtil.getUserIdFromJwt();
+        log.info("GET /api/v1/messages/search - Searching for user: {}", userId);
+
+        MessageSearchResponse response = messageSearchService.search(q, roomId, channelId, before, size, userId);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @PutMapping("/{messageId}")
     public ResponseEntity<ApiResponse<MessageResponse>> editMessage(
             @PathVariable Long messageId,
@@ -98,13 +129,13 @@ public class MessageController {
         return ResponseEntity.ok(ApiResponse.success("Message unpinned", null));
     }
 
-    @GetMapping("/rooms/{roomId}/pinned")
+    @GetMapping("/channels/{channelId}/pinned")
     public ResponseEntity<ApiResponse<List<MessageResponse>>> getPinnedMessages(
-            @PathVariable Long roomId) {
+            @PathVariable Long channelId) {
         Long userId = JwtUtil.getUserIdFromJwt();
-        log.info("GET /api/v1/messages/rooms/{}/pinned - Getting by user: {}", roomId, userId);
+        log.info("GET /api/v1/messages/channels/{}/pinned - Getting by user: {}", channelId, userId);
 
-        List<MessageResponse> response = messageService.getPinnedMessages(roomId, userId);
+        List<MessageResponse> response = messageService.getPinnedMessages(channelId, userId);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 }
@@ -6,8 +6,10 @@ import com.studyhub.chat_service.dto.request.InviteMemberRequest;
 import com.studyhub.chat_service.dto.request.JoinRoomRequest;
 import com.studyhub.chat_service.dto.request.UpdateRoomRequest;
 import com.studyhub.chat_service.dto.response.MemberResponse;
+import com.studyhub.chat_service.dto.response.RoomDirectoryResponse;
 import com.studyhub.chat_service.dto.response.RoomResponse;
 import com.studyhub.chat_service.dto.response.RoomSummary;
+import com.studyhub.chat_service.dto.response.UnreadCountResponse;
 import com.studyhub.chat_service.service.RoomService;
 import com.studyhub.chat_service.util.JwtUtil;
 import com.studyhub.common.dto.ApiResponse;
@@ -79,11 +81,33 @@ public class RoomController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/unread")
+    public ResponseEntity<ApiResponse<List<UnreadCountResponse>>> getUnreadCounts() {
+        Long userId = JwtUtil.getUserIdFromJwt();
+        log.info("GET /api/v1/rooms/unread - Getting unread counts for user: {}", userId);
+
+        List<UnreadCountResponse> response = roomService.getUnreadCounts(userId);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @PutMapping("/{roomId}/read")
+    public ResponseEntity<ApiResponse<Void>> markRoomRead(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long messageId) {
+        Long userId = JwtUtil.getUserIdFromJwt();
+        log.info("PUT /api/v1/rooms/{}/read - User {} read up to message: {}", roomId, userId, messageId);
+
+        roomService.markRoomRead(roomId, messageId, userId);
+        return ResponseEntity.ok(ApiResponse.success("Room marked as read", null));
+    }
+
     @GetMapping("/public")
-    public ResponseEntity<ApiResponse<List<RoomSummary>>> getPublicRooms() {
-        log.info("GET /api/v1/rooms/public - Getting public rooms");
+    public ResponseEntity<ApiResponse<RoomDirectoryResponse>> getPublicRooms(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /api/v1/rooms/public - Getting public rooms after cursor: {}", cursor);
 
-        List<RoomSummary> response = roomService.getPublicRooms();
+        RoomDirectoryResponse response = roomService.getPublicRooms(cursor, size);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
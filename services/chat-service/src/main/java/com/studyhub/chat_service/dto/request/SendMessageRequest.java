@@ -22,4 +22,8 @@ public class SendMessageRequest {
     private Long parentMessageId;
 
     private List<AttachmentDto> attachments;
+
+    // Echoed back in MessageAck so the client can match acknowledgments to sends
+    @Size(max = 64, message = "Client message ID must not exceed 64 characters")
+    private String clientMessageId;
 }
@@ -0,0 +1,29 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sent to the sender on /user/queue/messages/ack for messages that carry a
+ * clientMessageId
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageAck {
+
+    public enum Status {
+        ACCEPTED,  // Queued for write-behind; not yet durable, no messageId yet
+        PERSISTED, // Committed to the database, with its messageId
+        FAILED     // Could not be stored; the client should resend
+    }
+
+    private String clientMessageId;
+    private Long messageId;
+    private Long roomId;
+    private Long channelId;
+    private Status status;
+}
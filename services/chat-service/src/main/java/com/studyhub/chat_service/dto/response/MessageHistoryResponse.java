@@ -0,0 +1,19 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageHistoryResponse {
+    
+    private List<MessageResponse> messages;
+    private Boolean hasMore;
+    private String nextCursor; // Pass back with the same direction to continue, null when hasMore is false
+}
@@ -0,0 +1,22 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageSearchResult {
+
+    private Long messageId;
+    private Long roomId;
+    private Long channelId;
+    private MessageResponse.SenderInfo sender;
+    private String snippet; // HTML-escaped excerpt, matched words wrapped in <mark>
+    private Instant createdAt;
+}
@@ -0,0 +1,23 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sent to /user/queue/errors when SEND frames are dropped for exceeding the
+ * sender's rate limit. One is sent per burst of dropped frames, not per frame.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitError {
+
+    public static final String ERROR = "rate-limited";
+
+    private String error;
+    private String destination;
+    private Long retryAfterMillis;
+}
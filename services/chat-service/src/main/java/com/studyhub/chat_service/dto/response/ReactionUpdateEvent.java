@@ -0,0 +1,27 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Reaction delta for one message, sent to /topic/rooms/{roomId} instead of the
+ * full MessageResponse
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReactionUpdateEvent {
+    
+    public static final String TYPE = "REACTION_UPDATE";
+    
+    @Builder.Default
+    private String type = TYPE;
+    private Long messageId;
+    private Long roomId;
+    private Map<String, Integer> reactionCounts; // emoji -> count, empty when all reactions are gone
+}
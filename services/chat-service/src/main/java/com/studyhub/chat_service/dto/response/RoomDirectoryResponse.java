@@ -0,0 +1,19 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomDirectoryResponse {
+    
+    private List<RoomSummary> rooms;
+    private Boolean hasMore;
+    private Long nextCursor; // Pass as cursor to get the next page, null when hasMore is false
+}
@@ -19,6 +19,7 @@ public class RoomSummary {
     private Integer memberCount;
     private Boolean isOwner;
     private Boolean isMember;
-    private LocalDateTime lastActivity;
+    private LocalDateTime lastActivity; // Last message, or last room update when there are no messages
+    private LocalDateTime lastMessageAt;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,26 @@
+package com.studyhub.chat_service.dto.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * Room listing row loaded in one query (see RoomRepository); mapped to
+ * RoomSummary by RoomService
+ */
+public record RoomSummaryRow(
+        Long id,
+        String name,
+        String description,
+        Long memberCount,
+        Boolean isOwner,
+        LocalDateTime lastMessageAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /**
+     * Rows not tied to the caller's membership (public directory)
+     */
+    public RoomSummaryRow(Long id, String name, String description, Long memberCount,
+            LocalDateTime lastMessageAt, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, description, memberCount, null, lastMessageAt, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,24 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everyone currently typing in a channel. Sent to
+ * /topic/rooms/{roomId}/channels/{channelId}/typing whenever the set changes;
+ * an empty list means nobody is typing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TypingSnapshot {
+    
+    private Long roomId;
+    private Long channelId;
+    private List<TypingEvent> users;
+}
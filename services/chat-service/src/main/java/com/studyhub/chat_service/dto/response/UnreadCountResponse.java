@@ -0,0 +1,21 @@
+package com.studyhub.chat_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UnreadCountResponse {
+    
+    private Long roomId;
+    private Long unreadCount;
+    private Long lastReadMessageId;
+    private Long lastMessageId;
+    private LocalDateTime lastMessageAt;
+}
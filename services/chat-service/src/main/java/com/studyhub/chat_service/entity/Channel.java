@@ -15,7 +15,9 @@ import lombok.NoArgsConstructor;
 public class Channel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "channel_id")
+    @SequenceGenerator(name = "channel_id", sequenceName = SequenceIds.CHANNEL_SEQUENCE,
+            allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -21,7 +21,9 @@ import java.util.List;
 public class Message {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_id")
+    @SequenceGenerator(name = "message_id", sequenceName = SequenceIds.MESSAGE_SEQUENCE,
+            allocationSize = SequenceIds.MESSAGE_ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
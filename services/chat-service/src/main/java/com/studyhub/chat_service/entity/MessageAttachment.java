@@ -18,7 +18,9 @@ import java.time.LocalDateTime;
 public class MessageAttachment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_attachment_id")
+    @SequenceGenerator(name = "message_attachment_id", sequenceName = SequenceIds.MESSAGE_ATTACHMENT_SEQUENCE,
+            allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
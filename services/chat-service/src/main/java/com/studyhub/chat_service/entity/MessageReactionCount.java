@@ -0,0 +1,26 @@
+package com.studyhub.chat_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of users who reacted to a message with an emoji. Kept in step with
+ * message_reactions by MessageService so reads never aggregate reactions.
+ */
+@Entity
+@Table(name = "message_reaction_counts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageReactionCount {
+    
+    @EmbeddedId
+    private MessageReactionCountId id;
+    
+    @Column(name = "reaction_count", nullable = false)
+    private Integer reactionCount;
+}
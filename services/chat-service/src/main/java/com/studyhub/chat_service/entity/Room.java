@@ -21,7 +21,9 @@ import java.util.List;
 public class Room {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_id")
+    @SequenceGenerator(name = "room_id", sequenceName = SequenceIds.ROOM_SEQUENCE,
+            allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -46,6 +48,17 @@ public class Room {
     @Column(name = "max_members")
     private Integer maxMembers = 50;
 
+    // "lowUserId:highUserId" for direct messages, null for groups
+    @Column(name = "dm_key", unique = true, length = 41)
+    private String dmKey;
+
+    // Newest message in any channel, maintained by MessageService.sendMessage
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -61,4 +74,12 @@ public class Room {
     @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Channel> channels = new ArrayList<>();
 
+    /**
+     * Canonical key for the DM between two users, the same whichever of them
+     * opens it
+     */
+    public static String directMessageKey(Long userId1, Long userId2) {
+        return Math.min(userId1, userId2) + ":" + Math.max(userId1, userId2);
+    }
+
 }
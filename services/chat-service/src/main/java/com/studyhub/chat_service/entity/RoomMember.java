@@ -31,6 +31,10 @@ public class RoomMember {
     @Column(name = "is_owner")
     private Boolean isOwner = false;
     
+    // Read cursor: messages with a higher id are unread
+    @Column(name = "last_read_message_id")
+    private Long lastReadMessageId;
+    
     @CreationTimestamp
     @Column(name = "joined_at", nullable = false, updatable = false)
     private LocalDateTime joinedAt;
@@ -0,0 +1,31 @@
+package com.studyhub.chat_service.entity;
+
+/**
+ * Id generation shared by the chat entities.
+ *
+ * Each entity draws ids from its own sequence with Hibernate's pooled
+ * optimizer: one nextval returns the upper end of a block of ALLOCATION_SIZE
+ * ids, so inserts need no round trip for keys and can be batched. The
+ * sequences are created with INCREMENT BY ALLOCATION_SIZE (see
+ * V9__pooled_id_sequences.sql); the two values must match.
+ *
+ * Message ids are the exception: unread counts, read cursors and the room's
+ * last message compare them as "higher id = newer", which blocks handed out
+ * per instance would break. message_id_seq increments by
+ * MESSAGE_ALLOCATION_SIZE = 1 (V12__monotonic_message_ids.sql), so ids follow
+ * the order they were drawn in; message inserts are still batched, with one
+ * nextval per message.
+ */
+public final class SequenceIds {
+
+    public static final int ALLOCATION_SIZE = 50;
+    public static final int MESSAGE_ALLOCATION_SIZE = 1;
+
+    public static final String MESSAGE_SEQUENCE = "message_id_seq";
+    public static final String MESSAGE_ATTACHMENT_SEQUENCE = "message_attachment_id_seq";
+    public static final String ROOM_SEQUENCE = "room_id_seq";
+    public static final String CHANNEL_SEQUENCE = "channel_id_seq";
+
+    private SequenceIds() {
+    }
+}
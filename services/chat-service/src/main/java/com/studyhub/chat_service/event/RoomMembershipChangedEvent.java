@@ -0,0 +1,9 @@
+package com.studyhub.chat_service.event;
+
+/**
+ * Published by RoomService when a room's members change (join, leave,
+ * removal, deletion); RoomMembershipEventRelay drops the room from the
+ * membership cache on this and every other instance
+ */
+public record RoomMembershipChangedEvent(Long roomId) {
+}
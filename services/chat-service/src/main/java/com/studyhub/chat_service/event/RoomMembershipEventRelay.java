@@ -0,0 +1,56 @@
+package com.studyhub.chat_service.event;
+
+import com.studyhub.chat_service.cache.ClusterCacheInvalidator;
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps RoomMembershipCache consistent across chat-service instances.
+ *
+ * A change drops the room from the local cache right away, so the rest of the
+ * request reloads it and sees its own change. The room is dropped again once
+ * the transaction completes, commit or rollback, so a snapshot loaded before
+ * the commit (by this request or a concurrent one) never outlives it. After
+ * commit the change is also sent to the other instances through
+ * ClusterCacheInvalidator, which drop the room and reload it on next use.
+ */
+@Slf4j
+@Component
+public class RoomMembershipEventRelay {
+
+    static final String CACHE = "room-membership";
+
+    private final RoomMembershipCache membershipCache;
+    private final ClusterCacheInvalidator clusterInvalidator;
+
+    public RoomMembershipEventRelay(RoomMembershipCache membershipCache,
+            ClusterCacheInvalidator clusterInvalidator) {
+        this.membershipCache = membershipCache;
+        this.clusterInvalidator = clusterInvalidator;
+        clusterInvalidator.register(CACHE, membershipCache::invalidate);
+    }
+
+    @EventListener
+    public void onMembershipChanged(RoomMembershipChangedEvent event) {
+        Long roomId = event.roomId();
+        membershipCache.invalidate(roomId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clusterInvalidator.publish(CACHE, roomId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                membershipCache.invalidate(roomId);
+                if (status == STATUS_COMMITTED) {
+                    clusterInvalidator.publish(CACHE, roomId);
+                }
+            }
+        });
+    }
+}
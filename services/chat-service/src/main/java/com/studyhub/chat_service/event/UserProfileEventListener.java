@@ -0,0 +1,34 @@
+package com.studyhub.chat_service.event;
+
+import com.studyhub.chat_service.cache.UserInfoCache;
+import com.studyhub.common.util.Constants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kafka listener for user profile updates published by user-service. Every
+ * chat-service instance uses its own consumer group so each local cache sees
+ * every invalidation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserProfileEventListener {
+
+    private final UserInfoCache userInfoCache;
+
+    @KafkaListener(
+            topics = Constants.TOPIC_USER_PROFILE_UPDATED,
+            groupId = "chat-service-user-cache-${random.uuid}",
+            autoStartup = "${app.kafka.enabled:false}")
+    public void onUserProfileUpdated(String userId) {
+        log.debug("Received profile update for userId: {}", userId);
+        try {
+            userInfoCache.invalidate(Long.valueOf(userId));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring profile update with invalid userId: {}", userId);
+        }
+    }
+}
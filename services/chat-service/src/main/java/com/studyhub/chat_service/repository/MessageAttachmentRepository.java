@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +14,7 @@ public interface MessageAttachmentRepository extends JpaRepository<MessageAttach
     
     @Query("SELECT a FROM MessageAttachment a WHERE a.message.id = :messageId")
     List<MessageAttachment> findByMessageId(@Param("messageId") Long messageId);
+
+    @Query("SELECT a FROM MessageAttachment a WHERE a.message.id IN :messageIds ORDER BY a.id")
+    List<MessageAttachment> findByMessageIdIn(@Param("messageIds") Collection<Long> messageIds);
 }
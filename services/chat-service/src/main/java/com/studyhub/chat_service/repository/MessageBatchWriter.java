@@ -0,0 +1,97 @@
+package com.studyhub.chat_service.repository;
+
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.MessageAttachment;
+import com.studyhub.chat_service.entity.SequenceIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Plain JDBC batch inserts for write-behind message ingest.
+ *
+ * Ids come from the same pooled sequences Hibernate uses (see SequenceIds), so
+ * rows written here never collide with rows persisted through JPA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageBatchWriter {
+
+    private static final String INSERT_MESSAGE = "INSERT INTO messages "
+            + "(id, channel_id, sender_id, content, parent_message_id, is_pinned, is_edited, is_deleted, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, false, false, false, ?, ?)";
+
+    private static final String INSERT_ATTACHMENT = "INSERT INTO message_attachments "
+            + "(id, message_id, file_id, file_name, file_type, file_size, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserve exactly count message ids, ascending, in one round trip
+     */
+    public List<Long> allocateMessageIds(int count) {
+        return allocateIds(SequenceIds.MESSAGE_SEQUENCE, SequenceIds.MESSAGE_ALLOCATION_SIZE, count);
+    }
+
+    /**
+     * Each nextval is the upper end of a block of allocationSize ids, the
+     * same convention as Hibernate's pooled optimizer
+     */
+    private List<Long> allocateIds(String sequence, int allocationSize, int count) {
+        int blocks = Math.max(1, (count + allocationSize - 1) / allocationSize);
+        List<Long> ids = new ArrayList<>(blocks * allocationSize);
+        for (Long hi : jdbcTemplate.queryForList(
+                "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, blocks)) {
+            for (long id = Math.max(1, hi - allocationSize + 1); id <= hi; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public void insertMessages(List<Message> messages) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages, messages.size(), (ps, message) -> {
+            Timestamp createdAt = Timestamp.valueOf(message.getCreatedAt());
+            ps.setLong(1, message.getId());
+            ps.setLong(2, message.getChannel().getId());
+            ps.setLong(3, message.getSenderId());
+            ps.setString(4, message.getContent());
+            if (message.getParentMessageId() != null) {
+                ps.setLong(5, message.getParentMessageId());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+            ps.setTimestamp(6, createdAt);
+            ps.setTimestamp(7, createdAt);
+        });
+    }
+
+    public void insertAttachments(List<MessageAttachment> attachments) {
+        if (attachments.isEmpty()) {
+            return;
+        }
+        Iterator<Long> ids = allocateIds(SequenceIds.MESSAGE_ATTACHMENT_SEQUENCE, SequenceIds.ALLOCATION_SIZE,
+                attachments.size()).iterator();
+        attachments.forEach(attachment -> attachment.setId(ids.next()));
+
+        jdbcTemplate.batchUpdate(INSERT_ATTACHMENT, attachments, attachments.size(), (ps, attachment) -> {
+            ps.setLong(1, attachment.getId());
+            ps.setLong(2, attachment.getMessage().getId());
+            ps.setString(3, attachment.getFileId());
+            ps.setString(4, attachment.getFileName());
+            ps.setString(5, attachment.getFileType());
+            if (attachment.getFileSize() != null) {
+                ps.setLong(6, attachment.getFileSize());
+            } else {
+                ps.setNull(6, Types.BIGINT);
+            }
+            ps.setTimestamp(7, Timestamp.valueOf(attachment.getMessage().getCreatedAt()));
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.studyhub.chat_service.repository;
+
+import com.studyhub.chat_service.entity.MessageReactionCount;
+import com.studyhub.chat_service.entity.MessageReactionCountId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MessageReactionCountRepository extends JpaRepository<MessageReactionCount, MessageReactionCountId> {
+    
+    @Query("SELECT c FROM MessageReactionCount c WHERE c.id.messageId IN :messageIds AND c.reactionCount > 0")
+    List<MessageReactionCount> findByMessageIdIn(@Param("messageIds") Collection<Long> messageIds);
+    
+    /**
+     * Creates the counter at 1 or bumps it, in one statement
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_reaction_counts (message_id, emoji, reaction_count) " +
+                   "VALUES (:messageId, :emoji, 1) " +
+                   "ON CONFLICT (message_id, emoji) " +
+                   "DO UPDATE SET reaction_count = message_reaction_counts.reaction_count + 1",
+           nativeQuery = true)
+    int increment(@Param("messageId") Long messageId, @Param("emoji") String emoji);
+    
+    // Rows that reach zero are kept and filtered out on read
+    @Modifying
+    @Query("UPDATE MessageReactionCount c SET c.reactionCount = c.reactionCount - 1 " +
+           "WHERE c.id.messageId = :messageId AND c.id.emoji = :emoji AND c.reactionCount > 0")
+    int decrement(@Param("messageId") Long messageId, @Param("emoji") String emoji);
+}
@@ -3,10 +3,12 @@ package com.studyhub.chat_service.repository;
 import com.studyhub.chat_service.entity.MessageReaction;
 import com.studyhub.chat_service.entity.MessageReactionId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,4 +21,25 @@ public interface MessageReactionRepository extends JpaRepository<MessageReaction
     List<Object[]> countReactionsByMessageId(@Param("messageId") Long messageId);
     
     List<MessageReaction> findByIdMessageIdAndIdUserId(Long messageId, Long userId);
+
+    @Query("SELECT mr FROM MessageReaction mr WHERE mr.id.messageId IN :messageIds AND mr.id.userId = :userId")
+    List<MessageReaction> findByMessageIdsAndUserId(@Param("messageIds") Collection<Long> messageIds,
+            @Param("userId") Long userId);
+
+    /**
+     * Adds the reaction unless the user already reacted with this emoji.
+     * Returns 1 when a row was inserted, 0 otherwise.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_reactions (message_id, user_id, emoji, created_at) "
+            + "VALUES (:messageId, :userId, :emoji, CURRENT_TIMESTAMP) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("messageId") Long messageId, @Param("userId") Long userId,
+            @Param("emoji") String emoji);
+
+    @Modifying
+    @Query("DELETE FROM MessageReaction mr "
+            + "WHERE mr.id.messageId = :messageId AND mr.id.userId = :userId AND mr.id.emoji = :emoji")
+    int deleteReaction(@Param("messageId") Long messageId, @Param("userId") Long userId,
+            @Param("emoji") String emoji);
 }
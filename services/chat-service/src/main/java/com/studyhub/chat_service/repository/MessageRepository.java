@@ -3,11 +3,13 @@ package com.studyhub.chat_service.repository;
 import com.studyhub.chat_service.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -16,9 +18,34 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     @Query("SELECT m FROM Message m WHERE m.channel.id = :channelId AND m.isDeleted = false ORDER BY m.createdAt DESC")
     Page<Message> findByChannelIdOrderByCreatedAtDesc(@Param("channelId") Long channelId, Pageable pageable);
     
-    @Query("SELECT m FROM Message m WHERE m.channel.id = :channelId AND m.isPinned = true AND m.isDeleted = false")
+    // Keyset pagination over (createdAt, id), served by idx_messages_channel_history.
+    // Slices fetch one extra row instead of running a COUNT.
+    
+    @Query("SELECT m FROM Message m WHERE m.channel.id = :channelId AND m.isDeleted = false " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findLatestByChannelId(@Param("channelId") Long channelId, Pageable pageable);
+    
+    @Query("SELECT m FROM Message m WHERE m.channel.id = :channelId AND m.isDeleted = false " +
+           "AND m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findByChannelIdBefore(@Param("channelId") Long channelId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+    
+    @Query("SELECT m FROM Message m WHERE m.channel.id = :channelId AND m.isDeleted = false " +
+           "AND m.createdAt >= :createdAt AND (m.createdAt > :createdAt OR m.id > :id) " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    Slice<Message> findByChannelIdAfter(@Param("channelId") Long channelId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+    
+    // Pinned messages per channel, served by the partial idx_messages_channel_pinned
+    @Query("SELECT m FROM Message m WHERE m.channel.id = :channelId AND m.isPinned = true AND m.isDeleted = false " +
+           "ORDER BY m.id DESC")
     List<Message> findPinnedMessagesByChannelId(@Param("channelId") Long channelId);
     
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.channel.id = :channelId AND m.isPinned = true")
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.channel.id = :channelId AND m.isPinned = true AND m.isDeleted = false")
     long countPinnedMessagesByChannelId(@Param("channelId") Long channelId);
 }
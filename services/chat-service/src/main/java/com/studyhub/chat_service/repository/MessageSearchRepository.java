@@ -0,0 +1,93 @@
+package com.studyhub.chat_service.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search over live messages in the rooms a user belongs to.
+ *
+ * Matches come from the GIN index on messages.content_tsv (see V11) and are
+ * returned newest first, paged by a (createdAt, id) keyset. Snippets are only
+ * built for the rows of the returned page.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageSearchRepository {
+
+    /**
+     * Wrap matched words in snippets; control characters that chat text should
+     * not contain. Any that a message does contain are stripped before
+     * ts_headline runs, so only ts_headline's own markers reach the snippet.
+     */
+    public static final String MATCH_START = "\u0002";
+    public static final String MATCH_END = "\u0003";
+
+    private static final String HEADLINE_OPTIONS = "StartSel=" + MATCH_START + ", StopSel=" + MATCH_END
+            + ", MaxWords=30, MinWords=10, MaxFragments=2";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param roomId    restrict to one room, or null for all of the user's rooms
+     * @param channelId restrict to one channel, or null
+     * @param beforeCreatedAt together with beforeId, only return messages older
+     *                  than this position; null for the first page
+     */
+    public List<SearchHit> search(Long userId, String query, Long roomId, Long channelId,
+            LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("WITH hits AS ("
+                + "SELECT m.id, c.room_id, m.channel_id, m.sender_id, m.content, m.created_at "
+                + "FROM messages m "
+                + "JOIN channels c ON c.id = m.channel_id "
+                + "JOIN room_members rm ON rm.room_id = c.room_id AND rm.user_id = ? "
+                + "WHERE m.content_tsv @@ websearch_to_tsquery('simple', ?) AND m.is_deleted = false");
+        args.add(userId);
+        args.add(query);
+
+        if (roomId != null) {
+            sql.append(" AND c.room_id = ?");
+            args.add(roomId);
+        }
+        if (channelId != null) {
+            sql.append(" AND m.channel_id = ?");
+            args.add(channelId);
+        }
+        if (beforeCreatedAt != null) {
+            sql.append(" AND (m.created_at, m.id) < (?, ?)");
+            args.add(Timestamp.valueOf(beforeCreatedAt));
+            args.add(beforeId);
+        }
+
+        sql.append(" ORDER BY m.created_at DESC, m.id DESC LIMIT ?) "
+                + "SELECT id, room_id, channel_id, sender_id, created_at, "
+                + "ts_headline('simple', translate(content, ?, ''), websearch_to_tsquery('simple', ?), ?) AS snippet "
+                + "FROM hits ORDER BY created_at DESC, id DESC");
+        args.add(limit);
+        args.add(MATCH_START + MATCH_END);
+        args.add(query);
+        args.add(HEADLINE_OPTIONS);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SearchHit(
+                rs.getLong("id"),
+                rs.getLong("room_id"),
+                rs.getLong("channel_id"),
+                rs.getLong("sender_id"),
+                rs.getString("snippet"),
+                rs.getTimestamp("created_at").toLocalDateTime()), args.toArray());
+    }
+
+    /**
+     * One matching message; matched words in snippet are wrapped in
+     * MATCH_START and MATCH_END
+     */
+    public record SearchHit(Long messageId, Long roomId, Long channelId, Long senderId, String snippet,
+            LocalDateTime createdAt) {
+    }
+}
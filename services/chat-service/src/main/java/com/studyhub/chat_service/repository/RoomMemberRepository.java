@@ -1,8 +1,10 @@
 package com.studyhub.chat_service.repository;
 
+import com.studyhub.chat_service.dto.response.UnreadCountResponse;
 import com.studyhub.chat_service.entity.RoomMember;
 import com.studyhub.chat_service.entity.RoomMemberId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,6 +20,46 @@ public interface RoomMemberRepository extends JpaRepository<RoomMember, RoomMemb
     @Query("SELECT COUNT(m) FROM RoomMember m WHERE m.room.id = :roomId")
     long countByRoomId(@Param("roomId") Long roomId);
     
+    /**
+     * Rows of [userId, isOwner] for every member of a room
+     */
+    @Query("SELECT m.id.userId, m.isOwner FROM RoomMember m WHERE m.id.roomId = :roomId")
+    List<Object[]> findMemberFlagsByRoomId(@Param("roomId") Long roomId);
+    
     @Query("SELECT m FROM RoomMember m WHERE m.userId = :userId")
     List<RoomMember> findByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Add a non-owner member unless they already belong to the room; returns
+     * 1 if the row was inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO room_members (room_id, user_id, is_owner, last_read_message_id, joined_at) " +
+           "VALUES (:roomId, :userId, false, :lastReadMessageId, now()) " +
+           "ON CONFLICT (room_id, user_id) DO NOTHING", nativeQuery = true)
+    int insertMemberIfAbsent(@Param("roomId") Long roomId, @Param("userId") Long userId,
+                             @Param("lastReadMessageId") Long lastReadMessageId);
+    
+    /**
+     * Move a member's read cursor forward; never moves it back
+     */
+    @Modifying
+    @Query("UPDATE RoomMember m SET m.lastReadMessageId = :messageId " +
+           "WHERE m.id.roomId = :roomId AND m.id.userId = :userId " +
+           "AND (m.lastReadMessageId IS NULL OR m.lastReadMessageId < :messageId)")
+    int updateReadCursor(@Param("roomId") Long roomId, @Param("userId") Long userId, @Param("messageId") Long messageId);
+    
+    /**
+     * Unread counts for all of a user's rooms in one query. Messages the user
+     * sent are not counted.
+     */
+    @Query("SELECT new com.studyhub.chat_service.dto.response.UnreadCountResponse(" +
+           "r.id, COUNT(msg), m.lastReadMessageId, r.lastMessageId, r.lastMessageAt) " +
+           "FROM RoomMember m JOIN m.room r " +
+           "LEFT JOIN Channel ch ON ch.room = r " +
+           "LEFT JOIN Message msg ON msg.channel = ch AND msg.isDeleted = false " +
+           "AND msg.id > COALESCE(m.lastReadMessageId, 0) AND msg.senderId <> m.id.userId " +
+           "WHERE m.id.userId = :userId " +
+           "GROUP BY r.id, m.lastReadMessageId, r.lastMessageId, r.lastMessageAt")
+    List<UnreadCountResponse> findUnreadCountsByUserId(@Param("userId") Long userId);
 }
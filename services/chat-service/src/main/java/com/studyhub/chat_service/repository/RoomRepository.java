@@ -1,24 +1,30 @@
 package com.studyhub.chat_service.repository;
 
+import com.studyhub.chat_service.dto.response.RoomSummaryRow;
 import com.studyhub.chat_service.entity.Room;
-import com.studyhub.chat_service.entity.RoomType;
+import com.studyhub.chat_service.entity.SequenceIds;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
+    // Member count per room, computed in the same query
+    String MEMBER_COUNT = "(SELECT COUNT(c) FROM RoomMember c WHERE c.room = r)";
+    String LAST_MESSAGE_AT = "r.lastMessageAt";
+
     @Query("SELECT r FROM Room r JOIN r.members m WHERE m.userId = :userId")
     List<Room> findRoomsByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT r FROM Room r WHERE r.isPublic = true")
-    List<Room> findPublicRooms();
-
     Optional<Room> findByInviteCode(String inviteCode);
 
     @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM RoomMember m WHERE m.room.id = :roomId AND m.userId = :userId")
@@ -27,18 +33,62 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM RoomMember m WHERE m.room.id = :roomId AND m.userId = :userId AND m.isOwner = true")
     boolean isOwnerOfRoom(@Param("roomId") Long roomId, @Param("userId") Long userId);
 
+    Optional<Room> findByDmKey(String dmKey);
+
+    /**
+     * Create the DM room for a user pair unless it already exists. Returns 1
+     * when this call created it; a concurrent creator makes it return 0.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO rooms (id, name, description, creator_id, is_public, room_type, max_members, dm_key, "
+            + "created_at, updated_at) "
+            + "VALUES (nextval('" + SequenceIds.ROOM_SEQUENCE + "'), "
+            + ":name, :description, :creatorId, false, 'DIRECT_MESSAGE', 2, :dmKey, now(), now()) "
+            + "ON CONFLICT (dm_key) DO NOTHING", nativeQuery = true)
+    int insertDirectMessageRoomIfAbsent(@Param("name") String name,
+            @Param("description") String description,
+            @Param("creatorId") Long creatorId,
+            @Param("dmKey") String dmKey);
+
+    /**
+     * Summaries of every room the user belongs to, in one query
+     */
+    @Query("SELECT new com.studyhub.chat_service.dto.response.RoomSummaryRow("
+            + "r.id, r.name, r.description, " + MEMBER_COUNT + ", m.isOwner, " + LAST_MESSAGE_AT + ", "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM RoomMember m JOIN m.room r WHERE m.id.userId = :userId")
+    List<RoomSummaryRow> findRoomSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.studyhub.chat_service.dto.response.RoomSummaryRow("
+            + "r.id, r.name, r.description, " + MEMBER_COUNT + ", m.isOwner, " + LAST_MESSAGE_AT + ", "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM RoomMember m JOIN m.room r WHERE m.id.userId = :userId AND r.roomType = :roomType")
+    List<RoomSummaryRow> findRoomSummariesByUserIdAndRoomType(@Param("userId") Long userId,
+            @Param("roomType") String roomType);
+
+    /**
+     * Public room directory, newest first. Keyset paging on id: the first page
+     * here, following pages with findPublicRoomSummariesBefore.
+     */
+    @Query("SELECT new com.studyhub.chat_service.dto.response.RoomSummaryRow("
+            + "r.id, r.name, r.description, " + MEMBER_COUNT + ", " + LAST_MESSAGE_AT + ", "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM Room r WHERE r.isPublic = true ORDER BY r.id DESC")
+    Slice<RoomSummaryRow> findPublicRoomSummaries(Pageable pageable);
+
+    @Query("SELECT new com.studyhub.chat_service.dto.response.RoomSummaryRow("
+            + "r.id, r.name, r.description, " + MEMBER_COUNT + ", " + LAST_MESSAGE_AT + ", "
+            + "r.createdAt, r.updatedAt) "
+            + "FROM Room r WHERE r.isPublic = true AND r.id < :cursor ORDER BY r.id DESC")
+    Slice<RoomSummaryRow> findPublicRoomSummariesBefore(@Param("cursor") Long cursor, Pageable pageable);
+
     /**
-     * Find existing DM room between two users DM rooms always have exactly 2
-     * members
+     * Move the room's last-message pointer forward; never moves it back
      */
-    @Query("SELECT r FROM Room r "
-            + "WHERE r.roomType = :roomType "
-            + "AND (SELECT COUNT(m) FROM RoomMember m WHERE m.room.id = r.id) = 2 "
-            + "AND EXISTS (SELECT 1 FROM RoomMember m1 WHERE m1.room.id = r.id AND m1.userId = :userId1) "
-            + "AND EXISTS (SELECT 1 FROM RoomMember m2 WHERE m2.room.id = r.id AND m2.userId = :userId2)")
-    Optional<Room> findDirectMessageRoom(
-            @Param("roomType") RoomType roomType,
-            @Param("userId1") Long userId1,
-            @Param("userId2") Long userId2
-    );
+    @Modifying
+    @Query("UPDATE Room r SET r.lastMessageId = :messageId, r.lastMessageAt = :sentAt "
+            + "WHERE r.id = :roomId AND (r.lastMessageId IS NULL OR r.lastMessageId < :messageId)")
+    int updateLastMessage(@Param("roomId") Long roomId,
+            @Param("messageId") Long messageId,
+            @Param("sentAt") LocalDateTime sentAt);
 }
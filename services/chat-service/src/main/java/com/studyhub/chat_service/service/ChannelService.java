@@ -1,5 +1,6 @@
 package com.studyhub.chat_service.service;
 
+import com.studyhub.chat_service.cache.RoomMembershipCache;
 import com.studyhub.chat_service.dto.request.CreateChannelRequest;
 import com.studyhub.chat_service.dto.request.UpdateChannelRequest;
 import com.studyhub.chat_service.dto.response.ChannelResponse;
@@ -27,6 +28,7 @@ public class ChannelService {
 
     private final ChannelRepository channelRepository;
     private final RoomRepository roomRepository;
+    private final RoomMembershipCache membershipCache;
 
     @Transactional
     public ChannelResponse createChannel(CreateChannelRequest request, Long currentUserId) {
@@ -36,7 +38,7 @@ public class ChannelService {
         Room room = getRoomOrThrow(request.getRoomId());
         
         // Only room owner can create channels
-        if (!roomRepository.isOwnerOfRoom(request.getRoomId(), currentUserId)) {
+        if (!membershipCache.isOwner(request.getRoomId(), currentUserId)) {
             throw new UnauthorizedException("Only room owner can create channels");
         }
 
@@ -67,7 +69,7 @@ public class ChannelService {
         Channel channel = getChannelOrThrow(channelId);
         
         // Only room owner can update channels
-        if (!roomRepository.isOwnerOfRoom(channel.getRoom().getId(), currentUserId)) {
+        if (!membershipCache.isOwner(channel.getRoom().getId(), currentUserId)) {
             throw new UnauthorizedException("Only room owner can update channels");
         }
 
@@ -98,7 +100,7 @@ public class ChannelService {
         Channel channel = getChannelOrThrow(channelId);
         
         // Only room owner can delete channels
-        if (!roomRepository.isOwnerOfRoom(channel.getRoom().getId(), currentUserId)) {
+        if (!membershipCache.isOwner(channel.getRoom().getId(), currentUserId)) {
             throw new UnauthorizedException("Only room owner can delete channels");
         }
 
@@ -121,7 +123,7 @@ public class ChannelService {
         Channel channel = getChannelOrThrow(channelId);
         
         // Validate membership
-        if (!roomRepository.existsMemberInRoom(channel.getRoom().getId(), currentUserId)) {
+        if (!membershipCache.isMember(channel.getRoom().getId(), currentUserId)) {
             throw new UnauthorizedException("User is not a member of this room");
         }
 
@@ -133,7 +135,7 @@ public class ChannelService {
         log.info("Getting channels for room: {}", roomId);
 
         // Validate membership
-        if (!roomRepository.existsMemberInRoom(roomId, currentUserId)) {
+        if (!membershipCache.isMember(roomId, currentUserId)) {
             throw new UnauthorizedException("User is not a member of this room");
         }
 
@@ -0,0 +1,384 @@
+package com.studyhub.chat_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.dto.request.SendMessageRequest;
+import com.studyhub.chat_service.dto.response.MessageAck;
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import com.studyhub.chat_service.entity.Channel;
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.MessageAttachment;
+import com.studyhub.chat_service.exception.UnauthorizedException;
+import com.studyhub.chat_service.repository.ChannelRepository;
+import com.studyhub.chat_service.repository.MessageBatchWriter;
+import com.studyhub.chat_service.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Entry point for messages sent over STOMP.
+ *
+ * In the default direct mode every message is stored by
+ * MessageService.sendMessage in its own transaction. In write-behind mode
+ * (app.messages.ingest.mode=write-behind) a message is validated against the
+ * membership and channel caches and queued; the sender is acknowledged at
+ * once. A single flusher writes queued messages and their attachments in JDBC
+ * batches, one transaction per batch, then broadcasts them. Message ids and
+ * createdAt are both set when the batch is written, so a queued message is
+ * never older, by either, than a direct send stored while it waited. Replies
+ * and sends that find the queue full take the direct path.
+ *
+ * Senders that set clientMessageId get MessageAcks on /user/queue/messages/ack:
+ * ACCEPTED when queued (no messageId yet), then PERSISTED with the id or
+ * FAILED once the batch is written.
+ * Direct sends are acknowledged PERSISTED only. A later ack for the same
+ * clientMessageId supersedes an earlier one.
+ */
+@Slf4j
+@Service
+public class MessageIngestService {
+
+    public static final String ACK_DESTINATION = "/queue/messages/ack";
+
+    private final MessageService messageService;
+    private final MessageBatchWriter batchWriter;
+    private final RoomRepository roomRepository;
+    private final ChannelRepository channelRepository;
+    private final RoomMembershipCache membershipCache;
+    private final OutboundBroadcaster broadcaster;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final Duration flushInterval;
+
+    private final Cache<Long, Long> roomIdByChannel;
+    private final BlockingQueue<PendingMessage> pending;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-ingest-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter persisted;
+    private final Counter failed;
+    private final Counter directFallbacks;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+
+    public MessageIngestService(MessageService messageService,
+            MessageBatchWriter batchWriter,
+            RoomRepository roomRepository,
+            ChannelRepository channelRepository,
+            RoomMembershipCache membershipCache,
+            OutboundBroadcaster broadcaster,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.messages.ingest.mode:direct}") String mode,
+            @Value("${app.messages.ingest.batch-size:200}") int batchSize,
+            @Value("${app.messages.ingest.flush-interval:PT0.05S}") Duration flushInterval,
+            @Value("${app.messages.ingest.queue-capacity:10000}") int queueCapacity) {
+        this.messageService = messageService;
+        this.batchWriter = batchWriter;
+        this.roomRepository = roomRepository;
+        this.channelRepository = channelRepository;
+        this.membershipCache = membershipCache;
+        this.broadcaster = broadcaster;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehind = "write-behind".equals(mode);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.roomIdByChannel = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .build();
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("chat.ingest.queue.depth", pending, BlockingQueue::size)
+                .description("Accepted messages waiting to be written")
+                .register(meterRegistry);
+        this.persisted = Counter.builder("chat.ingest.persisted")
+                .description("Messages written by the write-behind flusher")
+                .register(meterRegistry);
+        this.failed = Counter.builder("chat.ingest.failed")
+                .description("Accepted messages that could not be written")
+                .register(meterRegistry);
+        this.directFallbacks = Counter.builder("chat.ingest.direct-fallback")
+                .description("Messages stored synchronously because the ingest queue was full")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("chat.ingest.batch.size")
+                .description("Messages written per batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.ingest.flush")
+                .description("Time to write and commit one batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (writeBehind) {
+            long intervalMillis = flushInterval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            log.info("Message ingest in write-behind mode (batch size {}, flush every {})", batchSize, flushInterval);
+        }
+    }
+
+    /**
+     * Store (or queue) a message sent over STOMP and acknowledge it
+     */
+    public MessageAck submit(Long roomId, Long channelId, SendMessageRequest request, Long senderId) {
+        if (!writeBehind || request.getParentMessageId() != null) {
+            return sendDirect(roomId, channelId, request, senderId);
+        }
+
+        boolean hasContent = request.getContent() != null && !request.getContent().trim().isEmpty();
+        boolean hasAttachments = request.getAttachments() != null && !request.getAttachments().isEmpty();
+        if (!hasContent && !hasAttachments) {
+            throw new IllegalArgumentException("Message must have either content or attachments");
+        }
+        if (!membershipCache.isMember(roomId, senderId)) {
+            throw new UnauthorizedException("User is not a member of this room");
+        }
+        if (!roomId.equals(roomIdOf(channelId))) {
+            throw new IllegalArgumentException("Channel does not belong to this room");
+        }
+
+        if (pending.remainingCapacity() == 0) {
+            return sendDirectWhenFull(roomId, channelId, request, senderId);
+        }
+        PendingMessage message = toPending(roomId, channelId, request, senderId);
+        // Queued ahead of the message so it always reaches the sender before PERSISTED
+        acknowledge(message, MessageAck.Status.ACCEPTED);
+        if (!pending.offer(message)) {
+            // Lost a race for the last slot; the PERSISTED ack from the direct path supersedes ACCEPTED
+            return sendDirectWhenFull(roomId, channelId, request, senderId);
+        }
+
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+        return ack(message, MessageAck.Status.ACCEPTED);
+    }
+
+    private MessageAck sendDirectWhenFull(Long roomId, Long channelId, SendMessageRequest request, Long senderId) {
+        directFallbacks.increment();
+        log.warn("Ingest queue full, storing message for channel {} synchronously", channelId);
+        return sendDirect(roomId, channelId, request, senderId);
+    }
+
+    private MessageAck sendDirect(Long roomId, Long channelId, SendMessageRequest request, Long senderId) {
+        MessageResponse response = messageService.sendMessage(roomId, channelId, request, senderId);
+        MessageAck ack = MessageAck.builder()
+                .clientMessageId(request.getClientMessageId())
+                .messageId(response.getId())
+                .roomId(roomId)
+                .channelId(channelId)
+                .status(MessageAck.Status.PERSISTED)
+                .build();
+        if (request.getClientMessageId() != null) {
+            broadcaster.toUser(roomId, senderId.toString(), ACK_DESTINATION, ack);
+        }
+        return ack;
+    }
+
+    private Long roomIdOf(Long channelId) {
+        return roomIdByChannel.get(channelId, id -> channelRepository.findById(id)
+                .map(channel -> channel.getRoom().getId())
+                .orElseThrow(() -> new IllegalArgumentException("Channel not found")));
+    }
+
+    private PendingMessage toPending(Long roomId, Long channelId, SendMessageRequest request, Long senderId) {
+        Message message = Message.builder()
+                .channel(Channel.builder().id(channelId).build())
+                .senderId(senderId)
+                .content(request.getContent() != null ? request.getContent() : "")
+                .isPinned(false)
+                .isEdited(false)
+                .isDeleted(false)
+                .build();
+
+        List<MessageAttachment> attachments = request.getAttachments() == null ? List.of()
+                : request.getAttachments().stream()
+                .map(dto -> MessageAttachment.builder()
+                .message(message)
+                .fileId(dto.getFileId())
+                .fileName(dto.getFileName())
+                .fileType(dto.getFileType())
+                .fileSize(dto.getFileSize())
+                .build())
+                .collect(Collectors.toList());
+
+        return new PendingMessage(roomId, request.getClientMessageId(), message, attachments);
+    }
+
+    /**
+     * Write everything queued so far, one batch at a time
+     */
+    void flush() {
+        flushRequested.set(false);
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(batch)));
+                batchSizes.record(batch.size());
+                persisted.increment(batch.size());
+                published(batch);
+            } catch (Exception e) {
+                // One bad row (e.g. a channel deleted meanwhile) must not take the rest down
+                log.error("Failed to write batch of {} messages, retrying one by one: {}",
+                        batch.size(), e.getMessage(), e);
+                batch.forEach(this::writeSingle);
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeSingle(PendingMessage message) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(List.of(message)));
+            persisted.increment();
+            published(List.of(message));
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Dropped message {} for channel {}: {}", message.message().getId(),
+                    message.message().getChannel().getId(), e.getMessage());
+            acknowledge(message, MessageAck.Status.FAILED);
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        assignIdsAndTimestamps(batch);
+        batchWriter.insertMessages(batch.stream().map(PendingMessage::message).toList());
+        batchWriter.insertAttachments(batch.stream().flatMap(message -> message.attachments().stream()).toList());
+
+        Map<Long, Message> latestByRoom = new HashMap<>();
+        for (PendingMessage message : batch) {
+            latestByRoom.merge(message.roomId(), message.message(),
+                    (a, b) -> a.getId() > b.getId() ? a : b);
+        }
+        latestByRoom.forEach((roomId, latest) ->
+                roomRepository.updateLastMessage(roomId, latest.getId(), latest.getCreatedAt()));
+    }
+
+    /**
+     * Ids and createdAt are taken together at write time rather than at
+     * accept time, so a message never gets a lower id or an earlier createdAt
+     * than one committed before it; read cursors compare ids while history is
+     * ordered by createdAt. Messages retried after a failed batch keep the
+     * ids and timestamps they were given.
+     */
+    private void assignIdsAndTimestamps(List<PendingMessage> batch) {
+        List<Message> unassigned = batch.stream()
+                .map(PendingMessage::message)
+                .filter(message -> message.getId() == null)
+                .toList();
+        if (unassigned.isEmpty()) {
+            return;
+        }
+        Iterator<Long> ids = batchWriter.allocateMessageIds(unassigned.size()).iterator();
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (Message message : unassigned) {
+            message.setId(ids.next());
+            message.setCreatedAt(createdAt);
+        }
+    }
+
+    private void published(List<PendingMessage> batch) {
+        Set<Long> senderIds = batch.stream()
+                .map(message -> message.message().getSenderId())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, MessageResponse.SenderInfo> senders = messageService.resolveSenders(senderIds);
+
+        for (PendingMessage pendingMessage : batch) {
+            Message message = pendingMessage.message();
+            Long roomId = pendingMessage.roomId();
+            broadcaster.toChannel(roomId, message.getChannel().getId(), message.getId(),
+                    toResponse(pendingMessage, senders.get(message.getSenderId())));
+            acknowledge(pendingMessage, MessageAck.Status.PERSISTED);
+        }
+    }
+
+    private MessageResponse toResponse(PendingMessage pendingMessage, MessageResponse.SenderInfo sender) {
+        Message message = pendingMessage.message();
+        return MessageResponse.builder()
+                .id(message.getId())
+                .roomId(pendingMessage.roomId())
+                .sender(sender)
+                .content(message.getContent())
+                .isPinned(false)
+                .isEdited(false)
+                .isDeleted(false)
+                .attachments(pendingMessage.attachments().stream()
+                        .map(att -> new MessageResponse.AttachmentInfo(
+                        att.getFileId(), att.getFileName(), att.getFileType(), att.getFileSize()))
+                        .collect(Collectors.toList()))
+                .reactionCounts(new HashMap<>())
+                .userReactions(new ArrayList<>())
+                .createdAt(message.getCreatedAt().toInstant(ZoneOffset.UTC))
+                .updatedAt(message.getCreatedAt().toInstant(ZoneOffset.UTC))
+                .build();
+    }
+
+    private void acknowledge(PendingMessage message, MessageAck.Status status) {
+        if (message.clientMessageId() != null) {
+            broadcaster.toUser(message.roomId(), message.message().getSenderId().toString(), ACK_DESTINATION,
+                    ack(message, status));
+        }
+    }
+
+    private MessageAck ack(PendingMessage message, MessageAck.Status status) {
+        return MessageAck.builder()
+                .clientMessageId(message.clientMessageId())
+                .messageId(message.message().getId())
+                .roomId(message.roomId())
+                .channelId(message.message().getChannel().getId())
+                .status(status)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Write whatever was accepted but not flushed yet
+        flush();
+    }
+
+    private record PendingMessage(Long roomId, String clientMessageId, Message message,
+            List<MessageAttachment> attachments) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.dto.request.MessageCursor;
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import com.studyhub.chat_service.dto.response.MessageSearchResponse;
+import com.studyhub.chat_service.dto.response.MessageSearchResult;
+import com.studyhub.chat_service.exception.UnauthorizedException;
+import com.studyhub.chat_service.repository.MessageSearchRepository;
+import com.studyhub.chat_service.repository.MessageSearchRepository.SearchHit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search of chat history, limited to rooms the caller is a member
+ * of. Queries use web search syntax: words, "quoted phrases", or, -excluded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageSearchService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final MessageSearchRepository searchRepository;
+    private final RoomMembershipCache membershipCache;
+    private final MessageService messageService;
+
+    /**
+     * @param roomId    optional, search one room only
+     * @param channelId optional, search one channel only
+     * @param before    cursor from a previous page, or null
+     */
+    public MessageSearchResponse search(String query, Long roomId, Long channelId, String before,
+            int size, Long currentUserId) {
+        log.info("Searching messages for user: {} in room: {} channel: {}", currentUserId, roomId, channelId);
+
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty()) {
+            return MessageSearchResponse.builder().results(List.of()).hasMore(false).build();
+        }
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is too long (max " + MAX_QUERY_LENGTH + ")");
+        }
+
+        // Non-members would just get no results; tell them why instead
+        if (roomId != null && !membershipCache.isMember(roomId, currentUserId)) {
+            throw new UnauthorizedException("User is not a member of this room");
+        }
+
+        MessageCursor cursor = before != null ? MessageCursor.decode(before) : null;
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // One extra row tells whether another page exists
+        List<SearchHit> hits = searchRepository.search(currentUserId, trimmed, roomId, channelId,
+                cursor != null ? cursor.createdAt() : null, cursor != null ? cursor.id() : null, limit + 1);
+        boolean hasMore = hits.size() > limit;
+        if (hasMore) {
+            hits = hits.subList(0, limit);
+        }
+
+        Set<Long> senderIds = hits.stream()
+                .map(SearchHit::senderId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, MessageResponse.SenderInfo> senders = senderIds.isEmpty()
+                ? Map.of()
+                : messageService.resolveSenders(senderIds);
+
+        List<MessageSearchResult> results = hits.stream()
+                .map(hit -> MessageSearchResult.builder()
+                        .messageId(hit.messageId())
+                        .roomId(hit.roomId())
+                        .channelId(hit.channelId())
+                        .sender(senders.get(hit.senderId()))
+                        .snippet(toHtml(hit.snippet()))
+                        .createdAt(hit.createdAt().toInstant(ZoneOffset.UTC))
+                        .build())
+                .collect(Collectors.toList());
+
+        SearchHit last = hasMore ? hits.get(hits.size() - 1) : null;
+        return MessageSearchResponse.builder()
+                .results(results)
+                .hasMore(hasMore)
+                .nextCursor(last != null ? new MessageCursor(last.createdAt(), last.messageId()).encode() : null)
+                .build();
+    }
+
+    /**
+     * Escape the message text, then turn the match markers into <mark> tags
+     */
+    static String toHtml(String snippet) {
+        return HtmlUtils.htmlEscape(snippet)
+                .replace(MessageSearchRepository.MATCH_START, "<mark>")
+                .replace(MessageSearchRepository.MATCH_END, "</mark>");
+    }
+}
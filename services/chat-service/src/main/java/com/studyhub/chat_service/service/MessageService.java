@@ -1,25 +1,36 @@
 package com.studyhub.chat_service.service;
 
+import com.studyhub.chat_service.cache.PinnedMessageCache;
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.cache.UserInfoCache;
 import com.studyhub.chat_service.client.UserClient;
 import com.studyhub.chat_service.dto.request.AddReactionRequest;
 import com.studyhub.chat_service.dto.request.EditMessageRequest;
+import com.studyhub.chat_service.dto.request.MessageCursor;
 import com.studyhub.chat_service.dto.request.SendMessageRequest;
+import com.studyhub.chat_service.dto.response.MessageHistoryResponse;
 import com.studyhub.chat_service.dto.response.MessageResponse;
 import com.studyhub.chat_service.entity.*;
+import com.studyhub.chat_service.exception.InvalidCursorException;
 import com.studyhub.chat_service.exception.MessageNotFoundException;
 import com.studyhub.chat_service.exception.UnauthorizedException;
 import com.studyhub.chat_service.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,14 +39,19 @@ import java.util.stream.Collectors;
 public class MessageService {
 
     private static final int MAX_PINNED_MESSAGES = 5;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
     private final MessageRepository messageRepository;
     private final MessageAttachmentRepository attachmentRepository;
     private final MessageReactionRepository reactionRepository;
+    private final MessageReactionCountRepository reactionCountRepository;
     private final ChannelRepository channelRepository;
     private final RoomRepository roomRepository;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final UserClient userClient;
+    private final RoomMembershipCache membershipCache;
+    private final PinnedMessageCache pinnedMessageCache;
+    private final OutboundBroadcaster broadcaster;
+    private final UserInfoCache userInfoCache;
+    private final ReactionUpdateBroadcaster reactionUpdateBroadcaster;
 
     @Transactional
     public MessageResponse sendMessage(Long roomId, Long channelId, SendMessageRequest request, Long senderId) {
@@ -98,11 +114,10 @@ public class MessageService {
         MessageResponse response = toMessageResponse(savedMessage, senderId);
 
         // Broadcast the new message to websocket subscribers of the channel
-        try {
-            messagingTemplate.convertAndSend("/topic/rooms/" + roomId + "/channels/" + channelId, response);
-        } catch (Exception e) {
-            log.error("Failed to broadcast message to WebSocket: {}", e.getMessage(), e);
-        }
+        broadcaster.toChannel(roomId, channelId, response.getId(), response);
+
+        // Last, as it locks the room row until commit and every send to the room waits on it
+        roomRepository.updateLastMessage(roomId, savedMessage.getId(), savedMessage.getCreatedAt());
 
         return response;
     }
@@ -113,8 +128,8 @@ public class MessageService {
 
         validateMembership(roomId, currentUserId);
 
-        return messageRepository.findByChannelIdOrderByCreatedAtDesc(roomId, pageable)
-                .map(message -> toMessageResponse(message, currentUserId));
+        return toMessageResponsePage(
+                messageRepository.findByChannelIdOrderByCreatedAtDesc(roomId, pageable), currentUserId);
     }
 
     @Transactional(readOnly = true)
@@ -127,8 +142,56 @@ public class MessageService {
         
         validateMembership(channel.getRoom().getId(), currentUserId);
 
-        return messageRepository.findByChannelIdOrderByCreatedAtDesc(channelId, pageable)
-                .map(message -> toMessageResponse(message, currentUserId));
+        return toMessageResponsePage(
+                messageRepository.findByChannelIdOrderByCreatedAtDesc(channelId, pageable), currentUserId);
+    }
+
+    /**
+     * Cursor-based history for infinite scroll. Cost does not depend on how far
+     * back the cursor is, and no COUNT query is run.
+     *
+     * - No cursor: the newest messages, newest first
+     * - before: messages older than the cursor, newest first
+     * - after: messages newer than the cursor, oldest first
+     *
+     * The returned nextCursor continues in the same direction.
+     */
+    @Transactional(readOnly = true)
+    public MessageHistoryResponse getMessageHistoryByCursor(Long channelId, Long currentUserId,
+                                                            String before, String after, int size) {
+        log.info("Getting cursor history for channel: {}", channelId);
+
+        if (before != null && after != null) {
+            throw new InvalidCursorException("Only one of 'before' and 'after' can be given");
+        }
+
+        Channel channel = channelRepository.findById(channelId)
+                .orElseThrow(() -> new IllegalArgumentException("Channel not found"));
+
+        validateMembership(channel.getRoom().getId(), currentUserId);
+
+        Pageable pageable = PageRequest.of(0, Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE));
+        Slice<Message> messages;
+        if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            messages = messageRepository.findByChannelIdBefore(channelId, cursor.createdAt(), cursor.id(), pageable);
+        } else if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            messages = messageRepository.findByChannelIdAfter(channelId, cursor.createdAt(), cursor.id(), pageable);
+        } else {
+            messages = messageRepository.findLatestByChannelId(channelId, pageable);
+        }
+
+        List<Message> content = messages.getContent();
+        String nextCursor = messages.hasNext() && !content.isEmpty()
+                ? MessageCursor.of(content.get(content.size() - 1)).encode()
+                : null;
+
+        return MessageHistoryResponse.builder()
+                .messages(toMessageResponses(content, currentUserId))
+                .hasMore(messages.hasNext())
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Transactional
@@ -150,14 +213,13 @@ public class MessageService {
         message.setIsEdited(true);
 
         Message updatedMessage = messageRepository.save(message);
+        if (updatedMessage.getIsPinned()) {
+            pinnedMessageCache.invalidate(updatedMessage.getChannel().getId());
+        }
         MessageResponse response = toMessageResponse(updatedMessage, currentUserId);
 
         // Broadcast edited message
-        try {
-            messagingTemplate.convertAndSend("/topic/rooms/" + response.getRoomId(), response);
-        } catch (Exception e) {
-            log.error("Failed to broadcast edited message: {}", e.getMessage(), e);
-        }
+        broadcaster.toRoom(response.getRoomId(), "/topic/rooms/" + response.getRoomId(), response);
 
         return response;
     }
@@ -170,7 +232,7 @@ public class MessageService {
 
         // Sender or room owner can delete
         boolean isSender = message.getSenderId().equals(currentUserId);
-        boolean isOwner = roomRepository.isOwnerOfRoom(message.getChannel().getRoom().getId(), currentUserId);
+        boolean isOwner = membershipCache.isOwner(message.getChannel().getRoom().getId(), currentUserId);
 
         if (!isSender && !isOwner) {
             throw new UnauthorizedException("Only sender or room owner can delete this message");
@@ -179,14 +241,13 @@ public class MessageService {
         message.setIsDeleted(true);
         message.setContent("[Deleted]");
         Message deleted = messageRepository.save(message);
+        if (deleted.getIsPinned()) {
+            pinnedMessageCache.invalidate(deleted.getChannel().getId());
+        }
 
         // Broadcast deleted message (message will contain deleted flag and content change)
-        try {
-            MessageResponse response = toMessageResponse(deleted, currentUserId);
-            messagingTemplate.convertAndSend("/topic/rooms/" + response.getRoomId(), response);
-        } catch (Exception e) {
-            log.error("Failed to broadcast deleted message: {}", e.getMessage(), e);
-        }
+        MessageResponse response = toMessageResponse(deleted, currentUserId);
+        broadcaster.toRoom(response.getRoomId(), "/topic/rooms/" + response.getRoomId(), response);
     }
 
     @Transactional
@@ -196,26 +257,14 @@ public class MessageService {
         Message message = getMessageOrThrow(messageId);
         validateMembership(message.getChannel().getRoom().getId(), currentUserId);
 
-        // Check if reaction already exists
-        MessageReactionId reactionId = new MessageReactionId(messageId, currentUserId, request.getEmoji());
-        if (reactionRepository.existsById(reactionId)) {
+        // Insert-if-absent; the counter only moves when a reaction was actually added
+        if (reactionRepository.insertIfAbsent(messageId, currentUserId, request.getEmoji()) == 0) {
             return; // Already reacted
         }
+        reactionCountRepository.increment(messageId, request.getEmoji());
 
-        MessageReaction reaction = MessageReaction.builder()
-                .id(reactionId)
-                .message(message)
-                .build();
-
-        reactionRepository.save(reaction);
-
-        // Broadcast reaction update to subscribers
-        try {
-            MessageResponse response = toMessageResponse(message, currentUserId);
-            messagingTemplate.convertAndSend("/topic/rooms/" + response.getRoomId(), response);
-        } catch (Exception e) {
-            log.error("Failed to broadcast reaction added: {}", e.getMessage(), e);
-        }
+        // Broadcast a coalesced reaction delta to subscribers
+        reactionUpdateBroadcaster.reactionsChanged(message.getChannel().getRoom().getId(), messageId);
     }
 
     @Transactional
@@ -225,16 +274,13 @@ public class MessageService {
         Message message = getMessageOrThrow(messageId);
         validateMembership(message.getChannel().getRoom().getId(), currentUserId);
 
-        MessageReactionId reactionId = new MessageReactionId(messageId, currentUserId, emoji);
-        reactionRepository.deleteById(reactionId);
-
-        // Broadcast reaction update to subscribers
-        try {
-            MessageResponse response = toMessageResponse(message, currentUserId);
-            messagingTemplate.convertAndSend("/topic/rooms/" + response.getRoomId(), response);
-        } catch (Exception e) {
-            log.error("Failed to broadcast reaction removed: {}", e.getMessage(), e);
+        if (reactionRepository.deleteReaction(messageId, currentUserId, emoji) == 0) {
+            return; // Nothing to remove
         }
+        reactionCountRepository.decrement(messageId, emoji);
+
+        // Broadcast a coalesced reaction delta to subscribers
+        reactionUpdateBroadcaster.reactionsChanged(message.getChannel().getRoom().getId(), messageId);
     }
 
     @Transactional
@@ -242,29 +288,31 @@ public class MessageService {
         log.info("Pinning message: {} by user: {}", messageId, currentUserId);
 
         Message message = getMessageOrThrow(messageId);
+        Long channelId = message.getChannel().getId();
         Long roomId = message.getChannel().getRoom().getId();
 
         // Only room owner can pin
-        if (!roomRepository.isOwnerOfRoom(roomId, currentUserId)) {
+        if (!membershipCache.isOwner(roomId, currentUserId)) {
             throw new UnauthorizedException("Only room owner can pin messages");
         }
 
-        // Check max pinned messages
-        long pinnedCount = messageRepository.findPinnedMessagesByChannelId(roomId).size();
-        if (pinnedCount >= MAX_PINNED_MESSAGES) {
-            throw new IllegalStateException("Maximum pinned messages reached (5)");
+        if (message.getIsDeleted()) {
+            throw new IllegalStateException("Cannot pin deleted message");
+        }
+
+        // Check max pinned messages per channel; re-pinning does not count twice
+        if (!message.getIsPinned()
+                && messageRepository.countPinnedMessagesByChannelId(channelId) >= MAX_PINNED_MESSAGES) {
+            throw new IllegalStateException("Maximum pinned messages reached (" + MAX_PINNED_MESSAGES + ")");
         }
 
         message.setIsPinned(true);
         Message pinnedMessage = messageRepository.save(message);
+        pinnedMessageCache.invalidate(channelId);
         MessageResponse response = toMessageResponse(pinnedMessage, currentUserId);
 
         // Broadcast pinned message to subscribers
-        try {
-            messagingTemplate.convertAndSend("/topic/rooms/" + response.getRoomId(), response);
-        } catch (Exception e) {
-            log.error("Failed to broadcast pinned message: {}", e.getMessage(), e);
-        }
+        broadcaster.toRoom(response.getRoomId(), "/topic/rooms/" + response.getRoomId(), response);
 
         return response;
     }
@@ -276,31 +324,41 @@ public class MessageService {
         Message message = getMessageOrThrow(messageId);
 
         // Only room owner can unpin
-        if (!roomRepository.isOwnerOfRoom(message.getChannel().getRoom().getId(), currentUserId)) {
+        if (!membershipCache.isOwner(message.getChannel().getRoom().getId(), currentUserId)) {
             throw new UnauthorizedException("Only room owner can unpin messages");
         }
 
         message.setIsPinned(false);
         Message updated = messageRepository.save(message);
+        pinnedMessageCache.invalidate(updated.getChannel().getId());
 
         // Broadcast unpinned message
-        try {
-            MessageResponse response = toMessageResponse(updated, currentUserId);
-            messagingTemplate.convertAndSend("/topic/rooms/" + response.getRoomId(), response);
-        } catch (Exception e) {
-            log.error("Failed to broadcast unpinned message: {}", e.getMessage(), e);
-        }
+        MessageResponse response = toMessageResponse(updated, currentUserId);
+        broadcaster.toRoom(response.getRoomId(), "/topic/rooms/" + response.getRoomId(), response);
     }
 
+    /**
+     * Pinned messages of a channel, newest message first. Served from
+     * PinnedMessageCache; only the caller's reactions are read per request.
+     */
     @Transactional(readOnly = true)
-    public List<MessageResponse> getPinnedMessages(Long roomId, Long currentUserId) {
-        log.info("Getting pinned messages for room: {}", roomId);
+    public List<MessageResponse> getPinnedMessages(Long channelId, Long currentUserId) {
+        log.info("Getting pinned messages for channel: {}", channelId);
 
-        validateMembership(roomId, currentUserId);
+        Channel channel = channelRepository.findById(channelId)
+                .orElseThrow(() -> new IllegalArgumentException("Channel not found"));
+
+        validateMembership(channel.getRoom().getId(), currentUserId);
 
-        return messageRepository.findPinnedMessagesByChannelId(roomId).stream()
-                .map(message -> toMessageResponse(message, currentUserId))
+        List<MessageResponse> pinned = pinnedMessageCache.get(channelId,
+                id -> toSharedResponses(messageRepository.findPinnedMessagesByChannelId(id)));
+
+        // Copy before adding the caller's reactions; cached entries are shared
+        List<MessageResponse> responses = pinned.stream()
+                .map(response -> response.toBuilder().build())
                 .collect(Collectors.toList());
+        addReactions(responses, currentUserId);
+        return responses;
     }
 
     // Helper methods
@@ -310,73 +368,142 @@ public class MessageService {
     }
 
     private void validateMembership(Long roomId, Long userId) {
-        if (!roomRepository.existsMemberInRoom(roomId, userId)) {
+        if (!membershipCache.isMember(roomId, userId)) {
             throw new UnauthorizedException("User is not a member of this room");
         }
     }
 
     private MessageResponse toMessageResponse(Message message, Long currentUserId) {
-        // Get attachments
-        List<MessageResponse.AttachmentInfo> attachments
-                = attachmentRepository.findByMessageId(message.getId()).stream()
-                        .map(att -> new MessageResponse.AttachmentInfo(
-                        att.getFileId(),
-                        att.getFileName(),
-                        att.getFileType(),
-                        att.getFileSize()
-                ))
-                        .collect(Collectors.toList());
-
-        // Get reaction counts
-        List<Object[]> reactionCounts = reactionRepository.countReactionsByMessageId(message.getId());
-        Map<String, Integer> reactionCountsMap = new HashMap<>();
-        for (Object[] result : reactionCounts) {
-            String emoji = (String) result[0];
-            Long count = (Long) result[1];
-            reactionCountsMap.put(emoji, count.intValue());
+        return toMessageResponses(List.of(message), currentUserId).get(0);
+    }
+
+    private Page<MessageResponse> toMessageResponsePage(Page<Message> messages, Long currentUserId) {
+        List<MessageResponse> content = toMessageResponses(messages.getContent(), currentUserId);
+        return new PageImpl<>(content, messages.getPageable(), messages.getTotalElements());
+    }
+
+    /**
+     * Hydrate a batch of messages with a fixed number of lookups: one query each
+     * for attachments, reaction counts and the caller's own reactions, plus one
+     * batched sender lookup. Order of the input is preserved.
+     */
+    private List<MessageResponse> toMessageResponses(List<Message> messages, Long currentUserId) {
+        List<MessageResponse> responses = toSharedResponses(messages);
+        addReactions(responses, currentUserId);
+        return responses;
+    }
+
+    /**
+     * The reader-independent part of a batch: content, sender and attachments
+     */
+    private List<MessageResponse> toSharedResponses(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // Get user's reactions
-        List<String> userReactions = reactionRepository.findByIdMessageIdAndIdUserId(
-                message.getId(), currentUserId).stream()
-                .map(reaction -> reaction.getId().getEmoji())
+        List<Long> messageIds = messages.stream()
+                .map(Message::getId)
                 .collect(Collectors.toList());
 
-        // Fetch sender details from User Service
-        MessageResponse.SenderInfo senderInfo;
-        try {
-            UserClient.UserInfo userInfo = userClient.getUserById(message.getSenderId());
-            senderInfo = new MessageResponse.SenderInfo(
-                    userInfo.getId(),
-                    userInfo.getUsername(),
-                    userInfo.getFullName(),
-                    userInfo.getAvatarUrl()
-            );
-        } catch (Exception e) {
-            log.warn("Failed to fetch user info for userId: {}, using placeholder", message.getSenderId(), e);
-            // Fallback to placeholder if User Service is down
-            senderInfo = new MessageResponse.SenderInfo(
-                    message.getSenderId(),
-                    "user" + message.getSenderId(),
-                    "User " + message.getSenderId(),
-                    null
-            );
+        // Attachments grouped by message
+        Map<Long, List<MessageResponse.AttachmentInfo>> attachmentsByMessage = new HashMap<>();
+        for (MessageAttachment att : attachmentRepository.findByMessageIdIn(messageIds)) {
+            attachmentsByMessage
+                    .computeIfAbsent(att.getMessage().getId(), id -> new ArrayList<>())
+                    .add(new MessageResponse.AttachmentInfo(
+                            att.getFileId(),
+                            att.getFileName(),
+                            att.getFileType(),
+                            att.getFileSize()
+                    ));
         }
 
-        return MessageResponse.builder()
+        // Sender details, resolved once per distinct sender
+        Set<Long> senderIds = messages.stream()
+                .map(Message::getSenderId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, MessageResponse.SenderInfo> senders = resolveSenders(senderIds);
+
+        return messages.stream()
+                .map(message -> MessageResponse.builder()
                 .id(message.getId())
                 .roomId(message.getChannel().getRoom().getId())
-                .sender(senderInfo)
+                .sender(senders.get(message.getSenderId()))
                 .content(message.getContent())
                 .parentMessageId(message.getParentMessageId())
                 .isPinned(message.getIsPinned())
                 .isEdited(message.getIsEdited())
                 .isDeleted(message.getIsDeleted())
-                .attachments(attachments)
-                .reactionCounts(reactionCountsMap)
-                .userReactions(userReactions)
+                .attachments(attachmentsByMessage.getOrDefault(message.getId(), new ArrayList<>()))
                 .createdAt(message.getCreatedAt().toInstant(java.time.ZoneOffset.UTC))
                 .updatedAt(message.getUpdatedAt().toInstant(java.time.ZoneOffset.UTC))
-                .build();
+                .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fill in reaction counts and the caller's own reactions, in place
+     */
+    private void addReactions(List<MessageResponse> responses, Long currentUserId) {
+        if (responses.isEmpty()) {
+            return;
+        }
+
+        List<Long> messageIds = responses.stream()
+                .map(MessageResponse::getId)
+                .collect(Collectors.toList());
+
+        // Reaction counts grouped by message, read from the denormalized counters
+        Map<Long, Map<String, Integer>> reactionCountsByMessage = new HashMap<>();
+        for (MessageReactionCount count : reactionCountRepository.findByMessageIdIn(messageIds)) {
+            reactionCountsByMessage
+                    .computeIfAbsent(count.getId().getMessageId(), id -> new HashMap<>())
+                    .put(count.getId().getEmoji(), count.getReactionCount());
+        }
+
+        // Current user's reactions grouped by message
+        Map<Long, List<String>> userReactionsByMessage = new HashMap<>();
+        for (MessageReaction reaction : reactionRepository.findByMessageIdsAndUserId(messageIds, currentUserId)) {
+            userReactionsByMessage
+                    .computeIfAbsent(reaction.getId().getMessageId(), id -> new ArrayList<>())
+                    .add(reaction.getId().getEmoji());
+        }
+
+        for (MessageResponse response : responses) {
+            response.setReactionCounts(reactionCountsByMessage.getOrDefault(response.getId(), new HashMap<>()));
+            response.setUserReactions(userReactionsByMessage.getOrDefault(response.getId(), new ArrayList<>()));
+        }
+    }
+
+    Map<Long, MessageResponse.SenderInfo> resolveSenders(Set<Long> senderIds) {
+        Map<Long, MessageResponse.SenderInfo> senders = new HashMap<>();
+        // Fetch sender details from the local cache, loading misses from User Service in one call
+        try {
+            for (UserClient.UserInfo userInfo : userInfoCache.getAll(senderIds).values()) {
+                senders.put(userInfo.getId(), new MessageResponse.SenderInfo(
+                        userInfo.getId(),
+                        userInfo.getUsername(),
+                        userInfo.getFullName(),
+                        userInfo.getAvatarUrl()
+                ));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to fetch user info for userIds: {}, using placeholders", senderIds, e);
+        }
+
+        // Fallback to placeholder if User Service is down or the user is unknown
+        for (Long senderId : senderIds) {
+            senders.computeIfAbsent(senderId, this::placeholderSender);
+        }
+        return senders;
+    }
+
+    private MessageResponse.SenderInfo placeholderSender(Long senderId) {
+        return new MessageResponse.SenderInfo(
+                senderId,
+                "user" + senderId,
+                "User " + senderId,
+                null
+        );
     }
 }
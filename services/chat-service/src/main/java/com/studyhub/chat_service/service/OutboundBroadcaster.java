@@ -0,0 +1,187 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.broker.ChannelReplayBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends room events to WebSocket subscribers after the surrounding transaction
+ * commits, off the request thread.
+ *
+ * Events are queued on one of a fixed number of lanes chosen by room id, and
+ * each lane is drained by a single virtual thread, so events of one room are
+ * delivered in commit order while rooms proceed in parallel. Serialization
+ * happens on the lane thread. Lanes are bounded: when a lane is full the
+ * event is dropped and counted rather than stalling the committing thread;
+ * clients recover the gap from message history.
+ *
+ * Rolled-back transactions broadcast nothing.
+ */
+@Slf4j
+@Component
+public class OutboundBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final List<BlockingQueue<OutboundMessage>> lanes = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer deliveryLag;
+
+    public OutboundBroadcaster(SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.broadcast.lanes:8}") int laneCount,
+            @Value("${app.broadcast.queue-capacity:1024}") int queueCapacity) {
+        this.messagingTemplate = messagingTemplate;
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+
+        Gauge.builder("chat.broadcast.queue.depth", lanes, queues -> queues.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Room events waiting to be broadcast")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("chat.broadcast.dropped")
+                .description("Room events dropped because their lane was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("chat.broadcast.failed")
+                .description("Room events that failed to serialize or send")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("chat.broadcast.delivery.lag")
+                .description("Time from commit until the event was handed to the broker")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < lanes.size(); i++) {
+            BlockingQueue<OutboundMessage> lane = lanes.get(i);
+            workers.add(Thread.ofVirtual().name("chat-broadcast-" + i).start(() -> drainForever(lane)));
+        }
+    }
+
+    /**
+     * Broadcast to a room topic once the current transaction commits
+     */
+    public void toRoom(Long roomId, String destination, Object payload) {
+        submit(new OutboundMessage(roomId, null, destination, payload, null, 0));
+    }
+
+    /**
+     * Broadcast a new message to its channel topic once the current
+     * transaction commits. The frame carries the message id, which lets
+     * reconnecting clients resume from it (see ChannelReplayBuffer).
+     */
+    public void toChannel(Long roomId, Long channelId, Long messageId, Object payload) {
+        submit(new OutboundMessage(roomId, null, "/topic/rooms/" + roomId + "/channels/" + channelId, payload,
+                Map.of(ChannelReplayBuffer.MESSAGE_ID_HEADER, messageId), 0));
+    }
+
+    /**
+     * Send to one user's queue once the current transaction commits, ordered
+     * with the room's other events
+     */
+    public void toUser(Long roomId, String user, String destination, Object payload) {
+        submit(new OutboundMessage(roomId, user, destination, payload, null, 0));
+    }
+
+    private void submit(OutboundMessage message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(message);
+                }
+            });
+        } else {
+            enqueue(message);
+        }
+    }
+
+    private void enqueue(OutboundMessage message) {
+        OutboundMessage stamped = message.enqueuedAt(System.nanoTime());
+        if (!laneFor(message.roomId()).offer(stamped)) {
+            dropped.increment();
+            log.warn("Broadcast lane full, dropped event for {}", message.destination());
+        }
+    }
+
+    private BlockingQueue<OutboundMessage> laneFor(Long roomId) {
+        return lanes.get(Math.floorMod(Long.hashCode(roomId), lanes.size()));
+    }
+
+    private void drainForever(BlockingQueue<OutboundMessage> lane) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                deliver(lane.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deliver everything currently queued on the calling thread
+     */
+    void drain() {
+        for (BlockingQueue<OutboundMessage> lane : lanes) {
+            OutboundMessage message;
+            while ((message = lane.poll()) != null) {
+                deliver(message);
+            }
+        }
+    }
+
+    private void deliver(OutboundMessage message) {
+        try {
+            if (message.user() != null) {
+                messagingTemplate.convertAndSendToUser(message.user(), message.destination(), message.payload());
+            } else if (message.headers() != null) {
+                messagingTemplate.convertAndSend(message.destination(), message.payload(), message.headers());
+            } else {
+                messagingTemplate.convertAndSend(message.destination(), message.payload());
+            }
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Failed to broadcast to {}: {}", message.destination(), e.getMessage(), e);
+        }
+        deliveryLag.record(System.nanoTime() - message.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+        int undelivered = lanes.stream().mapToInt(BlockingQueue::size).sum();
+        if (undelivered > 0) {
+            log.warn("Shutting down with {} undelivered broadcasts", undelivered);
+        }
+    }
+
+    /**
+     * headers are sent as native STOMP headers
+     */
+    private record OutboundMessage(Long roomId, String user, String destination, Object payload,
+            Map<String, Object> headers, long enqueuedAtNanos) {
+
+        OutboundMessage enqueuedAt(long nanos) {
+            return new OutboundMessage(roomId, user, destination, payload, headers, nanos);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.dto.response.ReactionUpdateEvent;
+import com.studyhub.chat_service.entity.MessageReactionCount;
+import com.studyhub.chat_service.repository.MessageReactionCountRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces reaction changes into one ReactionUpdateEvent per message per
+ * window.
+ *
+ * Changes are recorded after the surrounding transaction commits. The first
+ * change schedules a flush; everything recorded until then is sent with one
+ * counter lookup for all touched messages, so a burst of reactions on a
+ * message costs one read and one broadcast. Sends go through the
+ * OutboundBroadcaster so they stay ordered with the room's other events.
+ */
+@Slf4j
+@Component
+public class ReactionUpdateBroadcaster {
+
+    private final MessageReactionCountRepository reactionCountRepository;
+    private final OutboundBroadcaster broadcaster;
+    private final long windowMillis;
+
+    private final Map<Long, Long> pendingRoomByMessage = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reaction-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReactionUpdateBroadcaster(MessageReactionCountRepository reactionCountRepository,
+            OutboundBroadcaster broadcaster,
+            @Value("${app.reactions.broadcast-window:PT0.2S}") Duration window) {
+        this.reactionCountRepository = reactionCountRepository;
+        this.broadcaster = broadcaster;
+        this.windowMillis = window.toMillis();
+    }
+
+    /**
+     * Record that reactions on a message changed
+     */
+    public void reactionsChanged(Long roomId, Long messageId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(roomId, messageId);
+                }
+            });
+        } else {
+            enqueue(roomId, messageId);
+        }
+    }
+
+    private void enqueue(Long roomId, Long messageId) {
+        pendingRoomByMessage.put(messageId, roomId);
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void flush() {
+        flushScheduled.set(false);
+
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long messageId : pendingRoomByMessage.keySet()) {
+            Long roomId = pendingRoomByMessage.remove(messageId);
+            if (roomId != null) {
+                batch.put(messageId, roomId);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Long, Map<String, Integer>> countsByMessage = new HashMap<>();
+            for (MessageReactionCount count : reactionCountRepository.findByMessageIdIn(batch.keySet())) {
+                countsByMessage
+                        .computeIfAbsent(count.getId().getMessageId(), id -> new HashMap<>())
+                        .put(count.getId().getEmoji(), count.getReactionCount());
+            }
+
+            batch.forEach((messageId, roomId) -> broadcaster.toRoom(roomId, "/topic/rooms/" + roomId,
+                    ReactionUpdateEvent.builder()
+                            .messageId(messageId)
+                            .roomId(roomId)
+                            .reactionCounts(countsByMessage.getOrDefault(messageId, Map.of()))
+                            .build()));
+        } catch (Exception e) {
+            log.error("Failed to broadcast reaction updates for {} messages: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -1,25 +1,33 @@
 package com.studyhub.chat_service.service;
 
+import com.studyhub.chat_service.cache.RoomMembershipCache;
 import com.studyhub.chat_service.dto.request.CreateDirectMessageRequest;
 import com.studyhub.chat_service.dto.request.CreateRoomRequest;
 import com.studyhub.chat_service.dto.request.InviteMemberRequest;
 import com.studyhub.chat_service.dto.request.JoinRoomRequest;
 import com.studyhub.chat_service.dto.request.UpdateRoomRequest;
 import com.studyhub.chat_service.dto.response.MemberResponse;
+import com.studyhub.chat_service.dto.response.RoomDirectoryResponse;
 import com.studyhub.chat_service.dto.response.RoomResponse;
 import com.studyhub.chat_service.dto.response.RoomSummary;
+import com.studyhub.chat_service.dto.response.RoomSummaryRow;
+import com.studyhub.chat_service.dto.response.UnreadCountResponse;
 import com.studyhub.chat_service.entity.Channel;
 import com.studyhub.chat_service.entity.Room;
 import com.studyhub.chat_service.entity.RoomMember;
 import com.studyhub.chat_service.entity.RoomMemberId;
 import com.studyhub.chat_service.entity.RoomType;
+import com.studyhub.chat_service.event.RoomMembershipChangedEvent;
 import com.studyhub.chat_service.exception.RoomFullException;
 import com.studyhub.chat_service.exception.RoomNotFoundException;
 import com.studyhub.chat_service.exception.UnauthorizedException;
 import com.studyhub.chat_service.repository.RoomMemberRepository;
 import com.studyhub.chat_service.repository.RoomRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,10 +43,13 @@ import java.util.stream.Collectors;
 public class RoomService {
 
     private static final int MAX_MEMBERS = 50;
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 50;
 
     private final RoomRepository roomRepository;
     private final RoomMemberRepository roomMemberRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final OutboundBroadcaster broadcaster;
+    private final RoomMembershipCache membershipCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public RoomResponse createRoom(CreateRoomRequest request, Long currentUserId) {
@@ -74,6 +85,7 @@ public class RoomService {
                 .isOwner(true)
                 .build();
         roomMemberRepository.save(creatorMember);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(savedRoom.getId()));
 
         // Save again to persist channel (cascade will save the channel)
         savedRoom = roomRepository.save(savedRoom);
@@ -114,6 +126,7 @@ public class RoomService {
         validateOwnership(roomId, currentUserId);
 
         roomRepository.delete(room);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(roomId));
     }
 
     @Transactional(readOnly = true)
@@ -132,18 +145,33 @@ public class RoomService {
     public List<RoomSummary> getUserRooms(Long userId) {
         log.info("Getting rooms for user: {}", userId);
 
-        return roomRepository.findRoomsByUserId(userId).stream()
-                .map(this::toRoomSummary)
+        return roomRepository.findRoomSummariesByUserId(userId).stream()
+                .map(row -> toRoomSummary(row, true))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of the public room directory, newest first. Pass the returned
+     * nextCursor to continue.
+     */
     @Transactional(readOnly = true)
-    public List<RoomSummary> getPublicRooms() {
-        log.info("Getting public rooms");
+    public RoomDirectoryResponse getPublicRooms(Long cursor, int size) {
+        log.info("Getting public rooms after cursor: {}", cursor);
+
+        Pageable pageable = PageRequest.of(0, Math.min(Math.max(size, 1), MAX_DIRECTORY_PAGE_SIZE));
+        Slice<RoomSummaryRow> rows = cursor == null
+                ? roomRepository.findPublicRoomSummaries(pageable)
+                : roomRepository.findPublicRoomSummariesBefore(cursor, pageable);
 
-        return roomRepository.findPublicRooms().stream()
-                .map(this::toRoomSummary)
+        List<RoomSummary> rooms = rows.getContent().stream()
+                .map(row -> toRoomSummary(row, null))
                 .collect(Collectors.toList());
+
+        return RoomDirectoryResponse.builder()
+                .rooms(rooms)
+                .hasMore(rows.hasNext())
+                .nextCursor(rows.hasNext() && !rooms.isEmpty() ? rooms.get(rooms.size() - 1).getId() : null)
+                .build();
     }
 
     @Transactional
@@ -153,7 +181,7 @@ public class RoomService {
         Room room = getRoomOrThrow(roomId);
 
         // Check if already member
-        if (roomRepository.existsMemberInRoom(roomId, currentUserId)) {
+        if (membershipCache.isMember(roomId, currentUserId)) {
             throw new IllegalStateException("User is already a member of this room");
         }
 
@@ -166,7 +194,7 @@ public class RoomService {
         }
 
         // Check room capacity
-        long memberCount = roomMemberRepository.countByRoomId(roomId);
+        long memberCount = membershipCache.memberCount(roomId);
         if (memberCount >= room.getMaxMembers()) {
             throw new RoomFullException("Room has reached maximum capacity");
         }
@@ -176,16 +204,13 @@ public class RoomService {
                 .id(new RoomMemberId(roomId, currentUserId))
                 .room(room)
                 .isOwner(false)
+                .lastReadMessageId(room.getLastMessageId()) // History before joining is not unread
                 .build();
         roomMemberRepository.save(member);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(roomId));
 
         // Broadcast new member to room members via websocket
-        try {
-            MemberResponse memberResponse = toMemberResponse(member);
-            messagingTemplate.convertAndSend("/topic/rooms/" + roomId + "/members", memberResponse);
-        } catch (Exception e) {
-            log.error("Failed to broadcast room join event: {}", e.getMessage(), e);
-        }
+        broadcaster.toRoom(roomId, "/topic/rooms/" + roomId + "/members", toMemberResponse(member));
 
         return toRoomResponse(room, currentUserId);
     }
@@ -197,19 +222,16 @@ public class RoomService {
         Room room = getRoomOrThrow(roomId);
 
         // Owners cannot leave (must delete room or transfer ownership)
-        if (roomRepository.isOwnerOfRoom(roomId, currentUserId)) {
+        if (membershipCache.isOwner(roomId, currentUserId)) {
             throw new IllegalStateException("Room owner cannot leave. Transfer ownership or delete room.");
         }
 
         RoomMemberId memberId = new RoomMemberId(roomId, currentUserId);
         roomMemberRepository.deleteById(memberId);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(roomId));
 
         // Broadcast member left event
-        try {
-            messagingTemplate.convertAndSend("/topic/rooms/" + roomId + "/members/left", currentUserId);
-        } catch (Exception e) {
-            log.error("Failed to broadcast room leave event: {}", e.getMessage(), e);
-        }
+        broadcaster.toRoom(roomId, "/topic/rooms/" + roomId + "/members/left", currentUserId);
     }
 
     @Transactional
@@ -220,12 +242,12 @@ public class RoomService {
         Room room = getRoomOrThrow(roomId);
 
         // Check if user is already member
-        if (roomRepository.existsMemberInRoom(roomId, request.getUserId())) {
+        if (membershipCache.isMember(roomId, request.getUserId())) {
             throw new IllegalStateException("User is already a member");
         }
 
         // Check capacity
-        long memberCount = roomMemberRepository.countByRoomId(roomId);
+        long memberCount = membershipCache.memberCount(roomId);
         if (memberCount >= room.getMaxMembers()) {
             throw new RoomFullException("Room has reached maximum capacity");
         }
@@ -234,17 +256,14 @@ public class RoomService {
                 .id(new RoomMemberId(roomId, request.getUserId()))
                 .room(room)
                 .isOwner(false)
+                .lastReadMessageId(room.getLastMessageId())
                 .build();
         roomMemberRepository.save(newMember);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(roomId));
 
         // Notify invited user via websocket (user-specific queue)
-        try {
-            MemberResponse resp = toMemberResponse(newMember);
-            messagingTemplate.convertAndSendToUser(request.getUserId().toString(),
-                    "/queue/rooms/invites", resp);
-        } catch (Exception e) {
-            log.error("Failed to send room invite notification: {}", e.getMessage(), e);
-        }
+        broadcaster.toUser(roomId, request.getUserId().toString(), "/queue/rooms/invites",
+                toMemberResponse(newMember));
     }
 
     @Transactional
@@ -254,19 +273,16 @@ public class RoomService {
         validateOwnership(roomId, currentUserId);
 
         // Cannot remove owner
-        if (roomRepository.isOwnerOfRoom(roomId, memberUserId)) {
+        if (membershipCache.isOwner(roomId, memberUserId)) {
             throw new IllegalStateException("Cannot remove room owner");
         }
 
         RoomMemberId memberId = new RoomMemberId(roomId, memberUserId);
         roomMemberRepository.deleteById(memberId);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(roomId));
 
         // Broadcast member removed event
-        try {
-            messagingTemplate.convertAndSend("/topic/rooms/" + roomId + "/members/removed", memberUserId);
-        } catch (Exception e) {
-            log.error("Failed to broadcast member removal: {}", e.getMessage(), e);
-        }
+        broadcaster.toRoom(roomId, "/topic/rooms/" + roomId + "/members/removed", memberUserId);
     }
 
     @Transactional(readOnly = true)
@@ -280,6 +296,29 @@ public class RoomService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Move the user's read cursor to the given message, or to the room's
+     * latest message when none is given. The cursor never passes the room's
+     * latest message, so an id from the future cannot mark later messages read.
+     */
+    @Transactional
+    public void markRoomRead(Long roomId, Long messageId, Long currentUserId) {
+        validateMembership(roomId, currentUserId);
+
+        Long lastMessageId = getRoomOrThrow(roomId).getLastMessageId();
+        if (lastMessageId == null) {
+            return; // No messages yet
+        }
+        Long readUpTo = messageId != null ? Math.min(messageId, lastMessageId) : lastMessageId;
+        roomMemberRepository.updateReadCursor(roomId, currentUserId, readUpTo);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UnreadCountResponse> getUnreadCounts(Long userId) {
+        log.info("Getting unread counts for user: {}", userId);
+        return roomMemberRepository.findUnreadCountsByUserId(userId);
+    }
+
     // Helper methods
     private Room getRoomOrThrow(Long roomId) {
         return roomRepository.findById(roomId)
@@ -287,13 +326,13 @@ public class RoomService {
     }
 
     private void validateOwnership(Long roomId, Long userId) {
-        if (!roomRepository.isOwnerOfRoom(roomId, userId)) {
+        if (!membershipCache.isOwner(roomId, userId)) {
             throw new UnauthorizedException("User is not the owner of this room");
         }
     }
 
     private void validateMembership(Long roomId, Long userId) {
-        if (!roomRepository.existsMemberInRoom(roomId, userId)) {
+        if (!membershipCache.isMember(roomId, userId)) {
             throw new UnauthorizedException("User is not a member of this room");
         }
     }
@@ -303,9 +342,9 @@ public class RoomService {
     }
 
     private RoomResponse toRoomResponse(Room room, Long currentUserId) {
-        long memberCount = roomMemberRepository.countByRoomId(room.getId());
-        boolean isOwner = roomRepository.isOwnerOfRoom(room.getId(), currentUserId);
-        boolean isMember = roomRepository.existsMemberInRoom(room.getId(), currentUserId);
+        long memberCount = membershipCache.memberCount(room.getId());
+        boolean isOwner = membershipCache.isOwner(room.getId(), currentUserId);
+        boolean isMember = membershipCache.isMember(room.getId(), currentUserId);
 
         // Map channels
         List<RoomResponse.ChannelInfo> channels = room.getChannels().stream()
@@ -331,15 +370,17 @@ public class RoomService {
                 .build();
     }
 
-    private RoomSummary toRoomSummary(Room room) {
-        long memberCount = roomMemberRepository.countByRoomId(room.getId());
-
+    private RoomSummary toRoomSummary(RoomSummaryRow row, Boolean isMember) {
         return RoomSummary.builder()
-                .id(room.getId())
-                .name(room.getName())
-                .memberCount((int) memberCount)
-                .createdAt(room.getCreatedAt())
-                .lastActivity(room.getUpdatedAt())
+                .id(row.id())
+                .name(row.name())
+                .description(row.description())
+                .memberCount(row.memberCount().intValue())
+                .isOwner(row.isOwner())
+                .isMember(isMember)
+                .createdAt(row.createdAt())
+                .lastMessageAt(row.lastMessageAt())
+                .lastActivity(row.lastMessageAt() != null ? row.lastMessageAt() : row.updatedAt())
                 .build();
     }
 
@@ -364,6 +405,10 @@ public class RoomService {
      * return existing room - If not, create new DM room with roomType =
      * DIRECT_MESSAGE - DM rooms: isPublic=false, maxMembers=2, no invite code,
      * no channel concept
+     *
+     * A DM room has no invite code and its dm_key stays reserved for the pair,
+     * so a user who left can only get back in here: either user missing from
+     * an existing room is added again.
      */
     @Transactional
     public RoomResponse createOrGetDirectMessage(CreateDirectMessageRequest request, Long currentUserId) {
@@ -376,33 +421,30 @@ public class RoomService {
             throw new IllegalArgumentException("Cannot create direct message with yourself");
         }
 
-        // Check if DM already exists
-        Optional<Room> existingDM = roomRepository.findDirectMessageRoom(
-                RoomType.DIRECT_MESSAGE,
-                currentUserId,
-                recipientId
-        );
+        String dmKey = Room.directMessageKey(currentUserId, recipientId);
 
+        // Check if DM already exists
+        Optional<Room> existingDM = roomRepository.findByDmKey(dmKey);
         if (existingDM.isPresent()) {
-            log.info("DM room already exists: {}", existingDM.get().getId());
-            return toRoomResponse(existingDM.get(), currentUserId);
+            Room room = existingDM.get();
+            log.info("DM room already exists: {}", room.getId());
+            rejoinDirectMessage(room, currentUserId);
+            rejoinDirectMessage(room, recipientId);
+            return toRoomResponse(room, currentUserId);
         }
 
-        // Create new DM room
+        // Create new DM room; a concurrent request for the same pair wins or loses on the unique key
         // TODO: Fetch recipient user info from User Service to generate room name
         String dmName = "DM: " + currentUserId + " - " + recipientId;
-
-        Room dmRoom = Room.builder()
-                .name(dmName)
-                .description("Direct message conversation")
-                .creatorId(currentUserId)
-                .isPublic(false)
-                .roomType(RoomType.DIRECT_MESSAGE.toString())
-                .maxMembers(2)
-                .inviteCode(null) // No invite code for DMs
-                .build();
-
-        Room savedRoom = roomRepository.save(dmRoom);
+        int created = roomRepository.insertDirectMessageRoomIfAbsent(
+                dmName, "Direct message conversation", currentUserId, dmKey);
+
+        Room savedRoom = roomRepository.findByDmKey(dmKey)
+                .orElseThrow(() -> new IllegalStateException("Direct message room was not created"));
+        if (created == 0) {
+            log.info("DM room created concurrently: {}", savedRoom.getId());
+            return toRoomResponse(savedRoom, currentUserId);
+        }
 
         // Add both users as members (no owner concept in DMs)
         RoomMember member1 = RoomMember.builder()
@@ -418,11 +460,26 @@ public class RoomService {
                 .build();
 
         roomMemberRepository.saveAll(List.of(member1, member2));
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(savedRoom.getId()));
 
         log.info("Created new DM room: {}", savedRoom.getId());
         return toRoomResponse(savedRoom, currentUserId);
     }
 
+    /**
+     * Add a user who left back to their DM room. The room holds at most the
+     * pair, so there is no capacity check; a concurrent rejoin is a no-op.
+     */
+    private void rejoinDirectMessage(Room room, Long userId) {
+        if (membershipCache.isMember(room.getId(), userId)) {
+            return;
+        }
+        if (roomMemberRepository.insertMemberIfAbsent(room.getId(), userId, room.getLastMessageId()) > 0) {
+            log.info("User {} rejoined DM room: {}", userId, room.getId());
+            eventPublisher.publishEvent(new RoomMembershipChangedEvent(room.getId()));
+        }
+    }
+
     /**
      * Get all DM rooms for current user
      */
@@ -430,9 +487,8 @@ public class RoomService {
     public List<RoomSummary> getUserDirectMessages(Long userId) {
         log.info("Getting DMs for user: {}", userId);
 
-        return roomRepository.findRoomsByUserId(userId).stream()
-                .filter(room -> room.getRoomType() == RoomType.DIRECT_MESSAGE.toString())
-                .map(this::toRoomSummary)
+        return roomRepository.findRoomSummariesByUserIdAndRoomType(userId, RoomType.DIRECT_MESSAGE.toString()).stream()
+                .map(row -> toRoomSummary(row, true))
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,152 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.dto.response.TypingEvent;
+import com.studyhub.chat_service.dto.response.TypingSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aggregates typing indicators per channel.
+ *
+ * Typing frames only refresh the sender's entry. Every broadcast interval,
+ * channels whose set of typing users changed (someone started, stopped or
+ * timed out) get one TypingSnapshot; channels where the same people keep
+ * typing send nothing.
+ */
+@Slf4j
+@Service
+public class TypingIndicatorService {
+
+    private final RoomMembershipCache membershipCache;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Clock clock;
+    private final long expiryMillis;
+
+    private final Map<ChannelKey, ChannelTyping> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "typing-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public TypingIndicatorService(RoomMembershipCache membershipCache,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${app.typing.broadcast-interval:PT0.5S}") Duration broadcastInterval,
+            @Value("${app.typing.expiry:PT5S}") Duration expiry) {
+        this(membershipCache, messagingTemplate, broadcastInterval, expiry, Clock.systemUTC());
+    }
+
+    TypingIndicatorService(RoomMembershipCache membershipCache,
+            SimpMessagingTemplate messagingTemplate,
+            Duration broadcastInterval,
+            Duration expiry,
+            Clock clock) {
+        this.membershipCache = membershipCache;
+        this.messagingTemplate = messagingTemplate;
+        this.clock = clock;
+        this.expiryMillis = expiry.toMillis();
+        long intervalMillis = broadcastInterval.toMillis();
+        scheduler.scheduleAtFixedRate(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record that a user is typing. Frames from non-members are dropped.
+     */
+    public void typing(Long roomId, Long channelId, Long userId, String username) {
+        if (!membershipCache.isMember(roomId, userId)) {
+            log.debug("Ignoring typing indicator from non-member {} in room {}", userId, roomId);
+            return;
+        }
+
+        long expiresAt = clock.millis() + expiryMillis;
+        // Inside compute, so flush cannot drop the channel between lookup and put
+        channels.compute(new ChannelKey(roomId, channelId), (key, existing) -> {
+            ChannelTyping channel = existing != null ? existing : new ChannelTyping();
+            if (channel.users.put(userId, new TypingUser(username, expiresAt)) == null) {
+                channel.changed.set(true);
+            }
+            return channel;
+        });
+    }
+
+    /**
+     * Clear a user's indicator, e.g. once their message has been sent
+     */
+    public void stoppedTyping(Long roomId, Long channelId, Long userId) {
+        ChannelTyping channel = channels.get(new ChannelKey(roomId, channelId));
+        if (channel != null && channel.users.remove(userId) != null) {
+            channel.changed.set(true);
+        }
+    }
+
+    void flush() {
+        try {
+            long now = clock.millis();
+            channels.forEach((key, channel) -> {
+                if (channel.users.values().removeIf(user -> user.expiresAt() <= now)) {
+                    channel.changed.set(true);
+                }
+                if (channel.changed.getAndSet(false)) {
+                    broadcast(key, channel);
+                }
+                // Recreated on the next typing frame; atomic with the put in typing()
+                channels.computeIfPresent(key, (k, c) -> c.users.isEmpty() ? null : c);
+            });
+        } catch (Exception e) {
+            log.error("Failed to flush typing indicators: {}", e.getMessage(), e);
+        }
+    }
+
+    private void broadcast(ChannelKey key, ChannelTyping channel) {
+        List<TypingEvent> users = new ArrayList<>();
+        Instant timestamp = clock.instant();
+        channel.users.forEach((userId, user) -> users.add(TypingEvent.builder()
+                .userId(userId)
+                .username(user.username())
+                .timestamp(timestamp)
+                .build()));
+
+        messagingTemplate.convertAndSend(
+                "/topic/rooms/" + key.roomId() + "/channels/" + key.channelId() + "/typing",
+                TypingSnapshot.builder()
+                        .roomId(key.roomId())
+                        .channelId(key.channelId())
+                        .users(users)
+                        .build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private record ChannelKey(Long roomId, Long channelId) {
+    }
+
+    private record TypingUser(String username, long expiresAt) {
+    }
+
+    private static final class ChannelTyping {
+
+        final Map<Long, TypingUser> users = new ConcurrentHashMap<>();
+        final AtomicBoolean changed = new AtomicBoolean();
+    }
+}
@@ -1,5 +1,7 @@
 package com.studyhub.chat_service.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.studyhub.chat_service.client.UserClient;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +10,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * Utility class for extracting user information from JWT tokens
  */
@@ -15,6 +19,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class JwtUtil {
 
+    /**
+     * Keycloak UUID (sub) -> StudyHub userId. The mapping never changes for a
+     * user, so entries only expire to bound memory.
+     */
+    private static final Cache<String, Long> KEYCLOAK_USER_IDS = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
     private static UserClient userClient;
 
     @Autowired
@@ -82,32 +95,40 @@ public class JwtUtil {
                 // Try parse as Long first (for backward compatibility)
                 return Long.parseLong(keycloakId);
             } catch (NumberFormatException e) {
-                // UUID format - fetch from user-service
-                log.info("Fetching userId for Keycloak UUID: {}", keycloakId);
-                try {
-                    if (userClient == null) {
-                        log.error("UserClient is null - cannot fetch user by Keycloak ID");
-                        throw new IllegalStateException("UserClient not initialized");
-                    }
-
-                    UserClient.UserInfo userInfo = userClient.getUserByKeycloakId(keycloakId);
-                    if (userInfo != null && userInfo.getId() != null) {
-                        log.info("✅ Mapped Keycloak UUID {} to userId: {}", keycloakId, userInfo.getId());
-                        return userInfo.getId();
-                    } else {
-                        log.error("UserClient returned null or empty UserInfo for Keycloak ID: {}", keycloakId);
-                        throw new IllegalStateException("User not found for Keycloak ID: " + keycloakId);
-                    }
-                } catch (Exception ex) {
-                    log.error("❌ Failed to fetch user by Keycloak ID: {} - Error: {}", keycloakId, ex.getMessage(), ex);
-                    throw new IllegalStateException("Failed to resolve user from Keycloak ID: " + keycloakId + " - " + ex.getMessage());
-                }
+                // UUID format - resolve once per subject, then serve from cache
+                return KEYCLOAK_USER_IDS.get(keycloakId, JwtUtil::fetchUserIdByKeycloakId);
             }
         }
 
         throw new IllegalStateException("JWT token does not contain valid user identifier");
     }
 
+    /**
+     * Look up the StudyHub userId for a Keycloak UUID in user-service. Only
+     * called on cache misses; failures are not cached.
+     */
+    private static Long fetchUserIdByKeycloakId(String keycloakId) {
+        log.info("Fetching userId for Keycloak UUID: {}", keycloakId);
+        try {
+            if (userClient == null) {
+                log.error("UserClient is null - cannot fetch user by Keycloak ID");
+                throw new IllegalStateException("UserClient not initialized");
+            }
+
+            UserClient.UserInfo userInfo = userClient.getUserByKeycloakId(keycloakId);
+            if (userInfo != null && userInfo.getId() != null) {
+                log.info("✅ Mapped Keycloak UUID {} to userId: {}", keycloakId, userInfo.getId());
+                return userInfo.getId();
+            } else {
+                log.error("UserClient returned null or empty UserInfo for Keycloak ID: {}", keycloakId);
+                throw new IllegalStateException("User not found for Keycloak ID: " + keycloakId);
+            }
+        } catch (Exception ex) {
+            log.error("❌ Failed to fetch user by Keycloak ID: {} - Error: {}", keycloakId, ex.getMessage(), ex);
+            throw new IllegalStateException("Failed to resolve user from Keycloak ID: " + keycloakId + " - " + ex.getMessage());
+        }
+    }
+
     /**
      * Extract username from JWT token
      *
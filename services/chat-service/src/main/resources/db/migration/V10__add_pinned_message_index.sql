@@ -0,0 +1,4 @@
+-- Pinned messages per channel (list and pin-limit count). Only a handful of
+-- rows per channel are pinned, so the partial index stays tiny.
+CREATE INDEX IF NOT EXISTS idx_messages_channel_pinned
+    ON messages(channel_id, id) WHERE is_pinned = true AND is_deleted = false;
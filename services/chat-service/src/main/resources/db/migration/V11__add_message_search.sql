@@ -0,0 +1,10 @@
+-- Full-text search over message content. The 'simple' configuration lowercases
+-- and splits words without stemming or stop words, so it works for any
+-- language students write in. Adding a stored generated column rewrites the
+-- table once.
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS content_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', content)) STORED;
+
+-- Search only ever looks at live messages
+CREATE INDEX IF NOT EXISTS idx_messages_content_tsv
+    ON messages USING GIN (content_tsv) WHERE is_deleted = false;
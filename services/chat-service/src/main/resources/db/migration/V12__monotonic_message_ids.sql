@@ -0,0 +1,11 @@
+-- Message ids must keep ascending in the order they are drawn: unread counts,
+-- read cursors and rooms.last_message_id compare them as "higher = newer",
+-- which per-instance pooled blocks break. message_id_seq now hands out one id
+-- per nextval (SequenceIds.MESSAGE_ALLOCATION_SIZE). Instances still running
+-- with allocationSize 50 must be stopped before this migration runs.
+ALTER SEQUENCE message_id_seq INCREMENT BY 1;
+
+-- Start after every id a pooled block may have handed out
+SELECT setval('message_id_seq', GREATEST(
+        COALESCE((SELECT MAX(id) FROM messages), 0),
+        (SELECT last_value FROM message_id_seq)), true);
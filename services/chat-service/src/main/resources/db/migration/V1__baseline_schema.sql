@@ -0,0 +1,61 @@
+-- Baseline: the schema chat-service had before versioned migrations
+-- (previously created by hibernate ddl-auto). Later versions build on it.
+
+CREATE TABLE IF NOT EXISTS rooms (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    description  TEXT,
+    creator_id   BIGINT       NOT NULL,
+    is_public    BOOLEAN,
+    invite_code  VARCHAR(255) UNIQUE,
+    max_members  INTEGER,
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS room_members (
+    room_id    BIGINT       NOT NULL REFERENCES rooms(id),
+    user_id    BIGINT       NOT NULL,
+    is_owner   BOOLEAN,
+    joined_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (room_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS channels (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_id  BIGINT REFERENCES rooms(id),
+    name     VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS messages (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    channel_id         BIGINT       NOT NULL REFERENCES channels(id),
+    sender_id          BIGINT       NOT NULL,
+    content            TEXT         NOT NULL,
+    parent_message_id  BIGINT,
+    is_pinned          BOOLEAN,
+    is_edited          BOOLEAN,
+    is_deleted         BOOLEAN,
+    created_at         TIMESTAMP(6) NOT NULL,
+    updated_at         TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS message_attachments (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    message_id  BIGINT       NOT NULL REFERENCES messages(id),
+    file_id     VARCHAR(255) NOT NULL,
+    file_name   VARCHAR(255) NOT NULL,
+    file_type   VARCHAR(255),
+    file_size   BIGINT,
+    created_at  TIMESTAMP(6) NOT NULL
+);
+
+-- The primary key (message_id, user_id, emoji) also serves lookups by
+-- message_id and by (message_id, user_id)
+CREATE TABLE IF NOT EXISTS message_reactions (
+    message_id  BIGINT       NOT NULL REFERENCES messages(id),
+    user_id     BIGINT       NOT NULL,
+    emoji       VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (message_id, user_id, emoji)
+);
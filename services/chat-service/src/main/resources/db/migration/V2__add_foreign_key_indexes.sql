@@ -0,0 +1,11 @@
+-- Foreign keys Postgres does not index on its own. Hot paths covered by
+-- later versions: messages by channel (V4, V7), room_members by user and
+-- the public room directory (V6).
+
+-- Attachments for a page of messages: WHERE message_id IN (...) ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_message_attachments_message
+    ON message_attachments(message_id, id);
+
+-- Channels of a room: WHERE room_id = ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_channels_room
+    ON channels(room_id, id);
@@ -0,0 +1,4 @@
+-- Keyset pagination of channel history: WHERE channel_id = ? AND is_deleted = false
+-- ORDER BY created_at DESC, id DESC, starting from a (created_at, id) cursor
+CREATE INDEX IF NOT EXISTS idx_messages_channel_history
+    ON messages(channel_id, is_deleted, created_at DESC, id DESC);
@@ -0,0 +1,14 @@
+-- Per-message emoji counters, maintained alongside message_reactions
+CREATE TABLE IF NOT EXISTS message_reaction_counts (
+    message_id     BIGINT      NOT NULL REFERENCES messages(id) ON DELETE CASCADE,
+    emoji          VARCHAR(255) NOT NULL,
+    reaction_count INTEGER     NOT NULL DEFAULT 0,
+    PRIMARY KEY (message_id, emoji)
+);
+
+-- Backfill from existing reactions
+INSERT INTO message_reaction_counts (message_id, emoji, reaction_count)
+SELECT message_id, emoji, COUNT(*)
+FROM message_reactions
+GROUP BY message_id, emoji
+ON CONFLICT (message_id, emoji) DO UPDATE SET reaction_count = EXCLUDED.reaction_count;
@@ -0,0 +1,7 @@
+-- Public room directory: WHERE is_public = true AND id < ? ORDER BY id DESC
+CREATE INDEX IF NOT EXISTS idx_rooms_public_directory
+    ON rooms(id DESC) WHERE is_public = true;
+
+-- "My rooms": memberships by user (the primary key leads with room_id)
+CREATE INDEX IF NOT EXISTS idx_room_members_user
+    ON room_members(user_id);
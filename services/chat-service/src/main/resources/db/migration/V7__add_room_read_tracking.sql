@@ -0,0 +1,28 @@
+-- Last message pointer per room, advanced on every send
+ALTER TABLE rooms ADD COLUMN IF NOT EXISTS last_message_id BIGINT;
+ALTER TABLE rooms ADD COLUMN IF NOT EXISTS last_message_at TIMESTAMP;
+
+-- Read cursor per member: messages with a higher id are unread
+ALTER TABLE room_members ADD COLUMN IF NOT EXISTS last_read_message_id BIGINT;
+
+UPDATE rooms r
+SET last_message_id = latest.id,
+    last_message_at = latest.created_at
+FROM (
+    SELECT DISTINCT ON (c.room_id) c.room_id, m.id, m.created_at
+    FROM messages m
+    JOIN channels c ON c.id = m.channel_id
+    WHERE m.is_deleted = false
+    ORDER BY c.room_id, m.id DESC
+) latest
+WHERE latest.room_id = r.id;
+
+-- Existing members start with everything read
+UPDATE room_members rm
+SET last_read_message_id = r.last_message_id
+FROM rooms r
+WHERE r.id = rm.room_id;
+
+-- Unread counts: live messages per channel above the read cursor
+CREATE INDEX IF NOT EXISTS idx_messages_channel_id_live
+    ON messages(channel_id, id) WHERE is_deleted = false;
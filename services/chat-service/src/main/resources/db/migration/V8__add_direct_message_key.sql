@@ -0,0 +1,21 @@
+-- Canonical "low:high" user pair for direct messages; NULL for group rooms
+ALTER TABLE rooms ADD COLUMN IF NOT EXISTS dm_key VARCHAR(41);
+
+-- Backfill existing two-member DMs, keeping the oldest room when a pair has duplicates
+WITH pairs AS (
+    SELECT r.id,
+           MIN(rm.user_id) || ':' || MAX(rm.user_id) AS dm_key,
+           ROW_NUMBER() OVER (PARTITION BY MIN(rm.user_id), MAX(rm.user_id) ORDER BY r.id) AS rn
+    FROM rooms r
+    JOIN room_members rm ON rm.room_id = r.id
+    WHERE r.room_type = 'DIRECT_MESSAGE'
+    GROUP BY r.id
+    HAVING COUNT(*) = 2
+)
+UPDATE rooms r
+SET dm_key = pairs.dm_key
+FROM pairs
+WHERE pairs.id = r.id AND pairs.rn = 1;
+
+-- Opening a DM is one probe on this index; also the ON CONFLICT target
+CREATE UNIQUE INDEX IF NOT EXISTS uk_rooms_dm_key ON rooms(dm_key);
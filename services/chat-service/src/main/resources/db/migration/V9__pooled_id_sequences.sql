@@ -0,0 +1,23 @@
+-- Pooled id sequences for Hibernate; INCREMENT BY must equal
+-- SequenceIds.ALLOCATION_SIZE. A value v hands out ids v-49 .. v.
+CREATE SEQUENCE IF NOT EXISTS message_id_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS message_attachment_id_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS room_id_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS channel_id_seq INCREMENT BY 50;
+
+-- Continue after existing rows: the first nextval covers MAX(id)+1 .. MAX(id)+50
+SELECT setval('message_id_seq', COALESCE((SELECT MAX(id) FROM messages), 0) + 50, false);
+SELECT setval('message_attachment_id_seq', COALESCE((SELECT MAX(id) FROM message_attachments), 0) + 50, false);
+SELECT setval('room_id_seq', COALESCE((SELECT MAX(id) FROM rooms), 0) + 50, false);
+SELECT setval('channel_id_seq', COALESCE((SELECT MAX(id) FROM channels), 0) + 50, false);
+
+-- Ids are always supplied by the application now; a leftover identity or
+-- serial default would hand out values inside the pooled blocks
+ALTER TABLE messages ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE messages ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE message_attachments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE message_attachments ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE rooms ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE rooms ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE channels ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE channels ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,224 @@
+package com.studyhub.chat_service.benchmark;
+
+import com.studyhub.chat_service.broker.ChannelReplayBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation per subscriber session when one channel message is broadcast
+ * to 2, 50 and 500 subscribers, through the simple broker and the STOMP
+ * handler into stub sessions.
+ *
+ * The payload is serialized once per broadcast and the same array goes to
+ * every subscriber, so the cost per session should fall as the room grows;
+ * what remains is the per-session frame (subscription and message-id
+ * headers differ per session).
+ *
+ * Run with
+ * mvn test -Dtest=BroadcastFanOutBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BroadcastFanOutBenchmark {
+
+    private static final String DESTINATION = "/topic/rooms/1/channels/10";
+    private static final int SESSION_FRAMES = 400_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void broadcast_allocationPerSubscriber() {
+        Map<Integer, Long> bytesPerSession = new LinkedHashMap<>();
+        for (int subscribers : new int[] {2, 50, 500}) {
+            long bytes = bytesPerSession(subscribers);
+            bytesPerSession.put(subscribers, bytes);
+            System.out.printf("%d subscribers: %,d B/session%n", subscribers, bytes);
+        }
+        // Serialization is shared, so a larger room must not cost more per session
+        assertThat(bytesPerSession.get(500)).isLessThanOrEqualTo(bytesPerSession.get(2));
+    }
+
+    private long bytesPerSession(int subscribers) {
+        ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutboundChannel = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(clientInboundChannel,
+                clientOutboundChannel, brokerChannel, List.of("/topic"));
+        broker.start();
+
+        StompSubProtocolHandler stompHandler = new StompSubProtocolHandler();
+
+        Map<String, WebSocketSession> sessions = new HashMap<>();
+        for (int i = 0; i < subscribers; i++) {
+            String sessionId = "session-" + i;
+            sessions.put(sessionId, new StubSession(sessionId));
+            clientInboundChannel.send(frame(SimpMessageType.CONNECT, sessionId));
+            clientInboundChannel.send(frame(SimpMessageType.SUBSCRIBE, sessionId));
+        }
+        clientOutboundChannel.subscribe(message -> {
+            WebSocketSession session = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            if (session != null) {
+                stompHandler.handleMessageToClient(session, message);
+            }
+        });
+
+        SimpMessagingTemplate template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        Map<String, Object> payload = messagePayload();
+        Map<String, Object> headers = Map.of(ChannelReplayBuffer.MESSAGE_ID_HEADER, 123456L);
+
+        int broadcasts = SESSION_FRAMES / subscribers;
+        for (int i = 0; i < broadcasts; i++) {
+            template.convertAndSend(DESTINATION, payload, headers);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < broadcasts; i++) {
+            template.convertAndSend(DESTINATION, payload, headers);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        broker.stop();
+        return allocated / broadcasts / subscribers;
+    }
+
+    /**
+     * Roughly a MessageResponse with a few hundred characters of content
+     */
+    private static Map<String, Object> messagePayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", 123456L);
+        payload.put("channelId", 10L);
+        payload.put("senderId", 7L);
+        payload.put("content", "Dijkstra shortest path homework is due on Friday. ".repeat(8));
+        payload.put("createdAt", "2025-01-01T12:00:00");
+        payload.put("sender", Map.of("id", 7L, "username", "bob", "fullName", "Bob Builder"));
+        return payload;
+    }
+
+    private static org.springframework.messaging.Message<byte[]> frame(SimpMessageType type, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        if (type == SimpMessageType.SUBSCRIBE) {
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(DESTINATION);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    /**
+     * Accepts frames without writing them anywhere
+     */
+    private static final class StubSession implements WebSocketSession {
+
+        private final String id;
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        StubSession(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return "v12.stomp";
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+}
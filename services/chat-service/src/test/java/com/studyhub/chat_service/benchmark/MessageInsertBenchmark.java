@@ -0,0 +1,139 @@
+package com.studyhub.chat_service.benchmark;
+
+import com.studyhub.chat_service.entity.Channel;
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.MessageAttachment;
+import com.studyhub.chat_service.entity.Room;
+import com.studyhub.chat_service.entity.RoomType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of persisting messages with five attachments through Hibernate,
+ * with the entity mappings and Flyway schema the service runs with:
+ *
+ * - unbatched: JDBC batching turned off for the session
+ * - batched: hibernate.jdbc.batch_size and order_inserts as configured
+ *
+ * Message ids come from message_id_seq one at a time (they must stay
+ * monotonic); attachment ids from pooled blocks. Also checks that message
+ * ids ascend in persist order.
+ *
+ * Needs Docker; run with
+ * mvn test -Dtest=MessageInsertBenchmark -Dbenchmark=true
+ */
+@DataJpaTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MessageInsertBenchmark {
+
+    private static final int WARMUP = 500;
+    private static final int MESSAGES = 5_000;
+    private static final int ATTACHMENTS_PER_MESSAGE = 5;
+    private static final int FLUSH_EVERY = 50;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void jdbcBatching_persistThroughput() {
+        Session session = entityManager.unwrap(Session.class);
+        Long channelId = channel().getId();
+        Integer configuredBatchSize = session.getJdbcBatchSize();
+
+        session.setJdbcBatchSize(1);
+        persist(channelId, WARMUP);
+        double unbatched = messagesPerSecond(channelId);
+
+        session.setJdbcBatchSize(configuredBatchSize);
+        persist(channelId, WARMUP);
+        double batched = messagesPerSecond(channelId);
+
+        System.out.printf("unbatched: %,.0f messages/s, batched: %,.0f messages/s (%.1fx)%n",
+                unbatched, batched, batched / unbatched);
+        assertThat(batched).isGreaterThan(unbatched);
+    }
+
+    private double messagesPerSecond(Long channelId) {
+        long start = System.nanoTime();
+        List<Long> ids = persist(channelId, MESSAGES);
+        double perSecond = MESSAGES / ((System.nanoTime() - start) / 1e9);
+        assertThat(ids).isSorted();
+        return perSecond;
+    }
+
+    /**
+     * Ids of the persisted messages, in persist order
+     */
+    private List<Long> persist(Long channelId, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Message message = Message.builder()
+                    .channel(entityManager.getReference(Channel.class, channelId))
+                    .senderId(7L)
+                    .content("message " + i)
+                    .isPinned(false)
+                    .isEdited(false)
+                    .isDeleted(false)
+                    .attachments(new ArrayList<>())
+                    .build();
+            for (int a = 0; a < ATTACHMENTS_PER_MESSAGE; a++) {
+                message.getAttachments().add(MessageAttachment.builder()
+                        .message(message)
+                        .fileId("file-" + a)
+                        .fileName("notes-" + a + ".pdf")
+                        .fileType("application/pdf")
+                        .fileSize(1024L)
+                        .build());
+            }
+            entityManager.persist(message);
+            ids.add(message.getId());
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    private Channel channel() {
+        Room room = Room.builder()
+                .name("Benchmark").creatorId(7L).isPublic(true).roomType(RoomType.GROUP.toString()).maxMembers(50)
+                .build();
+        entityManager.persist(room);
+        Channel channel = Channel.builder().room(room).name("General").build();
+        entityManager.persist(channel);
+        entityManager.flush();
+        return channel;
+    }
+}
@@ -0,0 +1,167 @@
+package com.studyhub.chat_service.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.studyhub.chat_service.broker.BinaryPayloadNegotiation;
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes on the wire and encode time of typical channel message payloads as
+ * JSON, CBOR and Smile:
+ *
+ * - size: the payload body of one frame
+ * - encode: MessageResponse serialized straight to the format
+ * - transcode: a JSON broadcast converted for a binary session, as
+ * BinaryPayloadNegotiation does once per broadcast
+ *
+ * Run with
+ * mvn test -Dtest=PayloadFormatBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PayloadFormatBenchmark {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+    private static final Map<String, String> FORMATS = Map.of(
+            "CBOR", "application/cbor",
+            "Smile", "application/x-jackson-smile");
+
+    @Test
+    void payloadFormats_sizeAndEncodeTime() throws Exception {
+        for (Map.Entry<String, MessageResponse> payload : payloads().entrySet()) {
+            byte[] json = mapper(new JsonFactory()).writeValueAsBytes(payload.getValue());
+            System.out.printf("%s: JSON %d B, encode %.0f ns%n", payload.getKey(), json.length,
+                    encodeNanos(mapper(new JsonFactory()), payload.getValue()));
+
+            for (String format : List.of("CBOR", "Smile")) {
+                ObjectMapper mapper = mapper(format.equals("CBOR") ? new CBORFactory() : new SmileFactory());
+                byte[] encoded = mapper.writeValueAsBytes(payload.getValue());
+                System.out.printf("%s: %s %d B (%.0f%% of JSON), encode %.0f ns, transcode from JSON %.0f ns%n",
+                        payload.getKey(), format, encoded.length, 100.0 * encoded.length / json.length,
+                        encodeNanos(mapper, payload.getValue()), transcodeNanos(FORMATS.get(format), json));
+                assertThat(encoded.length).isLessThan(json.length);
+            }
+        }
+    }
+
+    private static double encodeNanos(ObjectMapper mapper, MessageResponse message) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += mapper.writeValueAsBytes(message).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(message).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return (double) elapsed / ITERATIONS;
+    }
+
+    /**
+     * A new payload array per broadcast, so every frame is transcoded
+     */
+    private static double transcodeNanos(String mimeType, byte[] json) {
+        BinaryPayloadNegotiation negotiation = new BinaryPayloadNegotiation(new SimpleMeterRegistry(), true);
+        SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        connect.setSessionId("session-a");
+        connect.setNativeHeader(BinaryPayloadNegotiation.ACCEPT_HEADER, mimeType);
+        negotiation.negotiator().preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), null);
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += transcode(negotiation, json.clone());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += transcode(negotiation, json.clone());
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return (double) elapsed / ITERATIONS;
+    }
+
+    private static int transcode(BinaryPayloadNegotiation negotiation, byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("session-a");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        Message<?> frame = negotiation.transcoder()
+                .preSend(MessageBuilder.createMessage(json, accessor.getMessageHeaders()), null);
+        if (frame.getPayload() == json) {
+            throw new IllegalStateException("Frame was not transcoded");
+        }
+        return ((byte[]) frame.getPayload()).length;
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return JsonMapper.builder(factory)
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static Map<String, MessageResponse> payloads() {
+        Instant createdAt = Instant.parse("2025-01-01T12:00:00.123456Z");
+        MessageResponse.SenderInfo sender = new MessageResponse.SenderInfo(
+                4711L, "jdoe", "Jane Doe", "https://cdn.studyhub.example/avatars/4711.png");
+
+        MessageResponse text = MessageResponse.builder()
+                .id(1_234_567L)
+                .roomId(12L)
+                .sender(sender)
+                .content("Has anyone finished problem set 4? I'm stuck on the second proof.")
+                .isPinned(false)
+                .isEdited(false)
+                .isDeleted(false)
+                .attachments(List.of())
+                .reactionCounts(Map.of())
+                .userReactions(List.of())
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+
+        Map<String, Integer> reactions = new LinkedHashMap<>();
+        reactions.put("👍", 12);
+        reactions.put("🎉", 3);
+        reactions.put("❤️", 5);
+        MessageResponse rich = text.toBuilder()
+                .parentMessageId(1_234_500L)
+                .content("Here are my notes from today's lecture, plus the slides.")
+                .isEdited(true)
+                .attachments(List.of(
+                        new MessageResponse.AttachmentInfo("f-8c1e2a", "lecture-12-notes.pdf",
+                                "application/pdf", 482_113L),
+                        new MessageResponse.AttachmentInfo("f-8c1e2b", "lecture-12-slides.pptx",
+                                "application/vnd.openxmlformats-officedocument.presentationml.presentation",
+                                3_201_554L)))
+                .reactionCounts(reactions)
+                .userReactions(List.of("👍"))
+                .updatedAt(createdAt.plusSeconds(90))
+                .build();
+
+        Map<String, MessageResponse> payloads = new LinkedHashMap<>();
+        payloads.put("text message", text);
+        payloads.put("message with attachments and reactions", rich);
+        return payloads;
+    }
+}
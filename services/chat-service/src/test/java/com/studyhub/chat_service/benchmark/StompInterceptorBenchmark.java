@@ -0,0 +1,117 @@
+package com.studyhub.chat_service.benchmark;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.config.SubscriptionAuthorizationInterceptor;
+import com.studyhub.chat_service.config.WebSocketAuthInterceptor;
+import com.studyhub.chat_service.repository.RoomMemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-frame cost of the client inbound interceptor chain (JWT auth, then
+ * SUBSCRIBE authorization) on a warm membership cache:
+ *
+ * - SEND: both interceptors pass the frame through
+ * - SUBSCRIBE: destination parsed and checked against the cached room
+ *
+ * Reports ns and allocated bytes per frame; run with
+ * mvn test -Dtest=StompInterceptorBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StompInterceptorBenchmark {
+
+    private static final int WARMUP = 2_000_000;
+    private static final int FRAMES = 10_000_000;
+    private static final long ROOM_ID = 12L;
+    private static final long USER_ID = 7L;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private List<ChannelInterceptor> chain;
+
+    @BeforeEach
+    void setUp() {
+        RoomMemberRepository roomMemberRepository = mock(RoomMemberRepository.class);
+        when(roomMemberRepository.findMemberFlagsByRoomId(ROOM_ID))
+                .thenReturn(List.<Object[]>of(new Object[] {USER_ID, false}));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RoomMembershipCache membershipCache =
+                new RoomMembershipCache(roomMemberRepository, meterRegistry, 10_000, Duration.ofMinutes(10));
+
+        chain = List.of(
+                new WebSocketAuthInterceptor(mock(JwtDecoder.class)),
+                new SubscriptionAuthorizationInterceptor(membershipCache, meterRegistry));
+    }
+
+    @Test
+    void interceptorChain_costPerFrame() {
+        Message<?> send = frame(SimpMessageType.MESSAGE, "/app/chat.send");
+        Message<?> subscribe = frame(SimpMessageType.SUBSCRIBE, "/topic/rooms/" + ROOM_ID + "/channels/3");
+
+        // SUBSCRIBE first: once the loop is compiled for pass-through frames
+        // only, the later SUBSCRIBE run measures deoptimized code instead
+        Result subscribeResult = measure(subscribe);
+        Result sendResult = measure(send);
+
+        System.out.printf("SEND: %.1f ns/frame, %.2f B/frame%n", sendResult.nanos(), sendResult.bytes());
+        System.out.printf("SUBSCRIBE: %.1f ns/frame, %.2f B/frame%n", subscribeResult.nanos(), subscribeResult.bytes());
+        assertThat(sendResult.bytes()).isLessThan(1.0);
+        assertThat(subscribeResult.bytes()).isLessThan(1.0);
+    }
+
+    private Result measure(Message<?> frame) {
+        run(frame, WARMUP);
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        run(frame, FRAMES);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return new Result((double) elapsed / FRAMES, (double) allocated / FRAMES);
+    }
+
+    private void run(Message<?> frame, int count) {
+        for (int i = 0; i < count; i++) {
+            Message<?> message = frame;
+            for (int j = 0; j < chain.size(); j++) {
+                message = chain.get(j).preSend(message, null);
+            }
+            if (message != frame) {
+                throw new IllegalStateException("Frame was replaced");
+            }
+        }
+    }
+
+    private static Message<byte[]> frame(SimpMessageType type, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId("session-a");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(destination);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(WebSocketAuthInterceptor.SESSION_USER_ID, USER_ID);
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private record Result(double nanos, double bytes) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.studyhub.chat_service.broker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BinaryPayloadNegotiationTest {
+
+    private static final byte[] PAYLOAD =
+            "{\"id\":1,\"content\":\"héllo\",\"reactionCounts\":{\"👍\":2}}".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BinaryPayloadNegotiation negotiation = new BinaryPayloadNegotiation(meterRegistry, true);
+
+    @Test
+    void connectWithAcceptHeader_transcodesThatSessionsFramesOnly() throws Exception {
+        negotiation.negotiate(connect("session-a", "application/cbor, application/json"));
+
+        Message<?> binary = negotiation.transcode(frame("session-a", PAYLOAD));
+        Message<?> json = negotiation.transcode(frame("session-b", PAYLOAD));
+
+        assertThat(json.getPayload()).isSameAs(PAYLOAD);
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(binary);
+        assertThat(accessor.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        assertThat(accessor.getFirstNativeHeader(BinaryPayloadNegotiation.CONTENT_TYPE_HEADER))
+                .isEqualTo("application/cbor");
+        assertThat(new ObjectMapper(new CBORFactory()).readTree((byte[]) binary.getPayload()))
+                .isEqualTo(new ObjectMapper().readTree(PAYLOAD));
+        assertThat(meterRegistry.get("chat.websocket.sessions.binary").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void broadcast_isTranscodedOncePerFormat() throws Exception {
+        negotiation.negotiate(connect("session-a", "application/x-jackson-smile"));
+        negotiation.negotiate(connect("session-b", "application/x-jackson-smile"));
+
+        Object first = negotiation.transcode(frame("session-a", PAYLOAD)).getPayload();
+        Object second = negotiation.transcode(frame("session-b", PAYLOAD)).getPayload();
+
+        assertThat(second).isSameAs(first);
+        assertThat(new ObjectMapper(new SmileFactory()).readTree((byte[]) first))
+                .isEqualTo(new ObjectMapper().readTree(PAYLOAD));
+    }
+
+    @Test
+    void jsonFirstOrUnsupportedOrDisconnected_staysJson() {
+        negotiation.negotiate(connect("session-a", "application/json, application/cbor"));
+        negotiation.negotiate(connect("session-b", "application/xml"));
+        negotiation.negotiate(connect("session-c", "application/cbor"));
+        negotiation.negotiate(frameOfType(SimpMessageType.DISCONNECT, "session-c"));
+
+        for (String session : new String[] {"session-a", "session-b", "session-c"}) {
+            assertThat(negotiation.transcode(frame(session, PAYLOAD)).getPayload()).isSameAs(PAYLOAD);
+        }
+    }
+
+    @Test
+    void invalidJson_isSentUnchanged() {
+        negotiation.negotiate(connect("session-a", "application/cbor"));
+        byte[] invalid = "{\"id\":".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(negotiation.transcode(frame("session-a", invalid)).getPayload()).isSameAs(invalid);
+    }
+
+    @Test
+    void transcodedFrames_goOutAsBinaryWebSocketMessages() throws Exception {
+        negotiation.negotiate(connect("session-a", "application/cbor"));
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("session-a");
+        when(session.isOpen()).thenReturn(true);
+
+        new StompSubProtocolHandler().handleMessageToClient(session, negotiation.transcode(frame("session-a", PAYLOAD)));
+
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session).sendMessage(sent.capture());
+        assertThat(sent.getValue()).isInstanceOf(BinaryMessage.class);
+    }
+
+    private static Message<byte[]> connect(String sessionId, String accept) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setNativeHeader(BinaryPayloadNegotiation.ACCEPT_HEADER, accept);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> frameOfType(SimpMessageType type, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    /**
+     * A per-subscriber frame as the simple broker sends it
+     */
+    private static Message<byte[]> frame(String sessionId, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination("/topic/rooms/1/channels/10");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
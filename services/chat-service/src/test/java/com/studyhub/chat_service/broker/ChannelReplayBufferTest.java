@@ -0,0 +1,170 @@
+package com.studyhub.chat_service.broker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a real simple broker: channel broadcasts pass the recorder on the
+ * broker channel, SUBSCRIBE frames pass the resumer on the inbound channel.
+ */
+class ChannelReplayBufferTest {
+
+    private static final String CHANNEL = "/topic/rooms/1/channels/10";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChannelReplayBuffer buffer = new ChannelReplayBuffer(meterRegistry, 3, DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+
+    private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+    private final ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+    private final ExecutorSubscribableChannel clientOutboundChannel = new ExecutorSubscribableChannel();
+    private final List<Message<?>> delivered = new CopyOnWriteArrayList<>();
+
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        brokerChannel.addInterceptor(buffer.recorder());
+        clientInboundChannel.addInterceptor(buffer.resumer());
+        clientOutboundChannel.subscribe(delivered::add);
+
+        broker = new SimpleBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel,
+                List.of("/topic", "/queue"));
+        broker.start();
+
+        template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.stop();
+    }
+
+    @Test
+    void resumingSubscribe_replaysOnlyMessagesAfterTheLastSeenOne() {
+        publish(1L);
+        publish(2L);
+        publish(3L);
+
+        subscribe("session-a", "1");
+
+        assertThat(delivered).extracting(this::messageId).containsExactly("2", "3");
+        assertThat(delivered).allSatisfy(frame -> {
+            assertThat(SimpMessageHeaderAccessor.getSessionId(frame.getHeaders())).isEqualTo("session-a");
+            assertThat(SimpMessageHeaderAccessor.getSubscriptionId(frame.getHeaders())).isEqualTo("sub-0");
+            assertThat(SimpMessageHeaderAccessor.getDestination(frame.getHeaders())).isEqualTo(CHANNEL);
+        });
+        assertThat(new String((byte[]) delivered.get(1).getPayload(), StandardCharsets.UTF_8)).contains("message 3");
+        assertThat(meterRegistry.get("chat.replay.replayed").counter().count()).isEqualTo(2.0);
+
+        // Live delivery continues on the same subscription
+        publish(4L);
+        assertThat(delivered).extracting(this::messageId).containsExactly("2", "3", "4");
+    }
+
+    @Test
+    void lastSeenOlderThanTheBuffer_tellsTheClientToReloadHistory() {
+        publish(1L);
+        publish(2L);
+        publish(3L);
+        publish(4L);
+
+        subscribe("session-a", "1");
+
+        assertThat(delivered).hasSize(1);
+        assertThat(NativeMessageHeaderAccessor.getFirstNativeHeader(
+                ChannelReplayBuffer.REPLAY_HEADER, delivered.get(0).getHeaders())).isEqualTo(ChannelReplayBuffer.GAP);
+        assertThat(meterRegistry.get("chat.replay.gaps").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void upToDateOrPlainSubscribe_replaysNothing() {
+        publish(1L);
+        publish(2L);
+        template.convertAndSend("/topic/rooms/1/channels/10/typing", Map.of("users", List.of()));
+
+        subscribe("session-a", "2");
+        subscribe("session-b", null);
+
+        assertThat(delivered).isEmpty();
+    }
+
+    @Test
+    void bufferedFrames_stayWithinTheByteBudget() {
+        ChannelReplayBuffer small = new ChannelReplayBuffer(new SimpleMeterRegistry(), 200,
+                DataSize.ofKilobytes(64), Duration.ofMinutes(10));
+        byte[] payload = new byte[1024];
+        for (int channel = 0; channel < 100; channel++) {
+            for (int message = 0; message < 20; message++) {
+                small.record(frame("/topic/rooms/1/channels/" + channel, message, payload));
+            }
+        }
+
+        // 100 channels x 20 frames would be about 3 MB
+        assertThat(small.weightedSize()).isLessThanOrEqualTo(DataSize.ofKilobytes(64).toBytes());
+    }
+
+    @Test
+    void ringWeight_followsTheFramesItStillHolds() {
+        for (int message = 0; message < 10; message++) {
+            buffer.record(frame(CHANNEL, message, new byte[100]));
+        }
+
+        // Capacity 3: only the newest three frames are held
+        assertThat(buffer.weightedSize()).isEqualTo(3L * (100 + ChannelReplayBuffer.FRAME_OVERHEAD));
+    }
+
+    private static Message<byte[]> frame(String destination, long messageId, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setNativeHeader(ChannelReplayBuffer.MESSAGE_ID_HEADER, String.valueOf(messageId));
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private void publish(Long messageId) {
+        template.convertAndSend(CHANNEL, Map.of("id", messageId, "content", "message " + messageId),
+                Map.of(ChannelReplayBuffer.MESSAGE_ID_HEADER, messageId));
+    }
+
+    private void subscribe(String sessionId, String lastSeen) {
+        SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        connect.setSessionId(sessionId);
+        clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+        delivered.clear(); // CONNECT_ACK
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(CHANNEL);
+        if (lastSeen != null) {
+            accessor.setNativeHeader(ChannelReplayBuffer.RESUME_HEADER, lastSeen);
+        }
+        clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    private String messageId(Message<?> frame) {
+        return NativeMessageHeaderAccessor.getFirstNativeHeader(ChannelReplayBuffer.MESSAGE_ID_HEADER,
+                frame.getHeaders());
+    }
+}
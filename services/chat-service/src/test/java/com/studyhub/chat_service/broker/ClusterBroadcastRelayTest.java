@@ -0,0 +1,132 @@
+package com.studyhub.chat_service.broker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two chat-service "instances" (each with its own simple broker) joined by an
+ * in-memory stand-in for the RabbitMQ fanout exchange.
+ */
+class ClusterBroadcastRelayTest {
+
+    private final List<Instance> instances = new CopyOnWriteArrayList<>();
+    private final AtomicInteger published = new AtomicInteger();
+
+    private Instance podA;
+    private Instance podB;
+
+    @BeforeEach
+    void setUp() {
+        BroadcastTransport fanout = broadcast -> {
+            published.incrementAndGet();
+            instances.forEach(instance -> instance.relay.deliver(broadcast, instance.brokerChannel));
+        };
+        podA = new Instance("pod-a", fanout);
+        podB = new Instance("pod-b", fanout);
+        instances.addAll(List.of(podA, podB));
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(instance -> instance.broker.stop());
+    }
+
+    @Test
+    void topicBroadcast_reachesSubscribersOnEveryInstanceExactlyOnce() {
+        String destination = "/topic/rooms/1/channels/2";
+        podA.subscribe("session-a", destination);
+        podB.subscribe("session-b", destination);
+
+        podA.template.convertAndSend(destination, Map.of("content", "hello"));
+
+        assertThat(podA.delivered).hasSize(1);
+        assertThat(podB.delivered).hasSize(1);
+        assertThat(new String((byte[]) podB.delivered.get(0).getPayload(), StandardCharsets.UTF_8))
+                .contains("hello");
+        assertThat(SimpMessageHeaderAccessor.getDestination(podB.delivered.get(0).getHeaders()))
+                .isEqualTo(destination);
+        // Relayed copies are not published again
+        assertThat(published).hasValue(1);
+    }
+
+    @Test
+    void channelMessageId_survivesTheRelay() {
+        String destination = "/topic/rooms/1/channels/2";
+        podB.subscribe("session-b", destination);
+
+        podA.template.convertAndSend(destination, Map.of("content", "hello"),
+                Map.of(ChannelReplayBuffer.MESSAGE_ID_HEADER, 42L));
+
+        assertThat(NativeMessageHeaderAccessor.getFirstNativeHeader(
+                ChannelReplayBuffer.MESSAGE_ID_HEADER, podB.delivered.get(0).getHeaders())).isEqualTo("42");
+    }
+
+    @Test
+    void userDestinations_areRelayedForResolutionOnEveryInstance() {
+        podA.template.convertAndSend("/user/42/queue/rooms/invites", Map.of("roomId", 1));
+
+        assertThat(published).hasValue(1);
+    }
+
+    @Test
+    void nonBroadcastDestinations_stayLocal() {
+        podA.template.convertAndSend("/queue/rooms/invites-usersession-a", Map.of("roomId", 1));
+
+        assertThat(published).hasValue(0);
+    }
+
+    private static final class Instance {
+
+        final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        final ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+        final ExecutorSubscribableChannel clientOutboundChannel = new ExecutorSubscribableChannel();
+        final List<Message<?>> delivered = new CopyOnWriteArrayList<>();
+        final SimpleBrokerMessageHandler broker;
+        final ClusterBroadcastRelay relay;
+        final SimpMessagingTemplate template;
+
+        Instance(String instanceId, BroadcastTransport transport) {
+            relay = new ClusterBroadcastRelay(instanceId, transport);
+            brokerChannel.addInterceptor(relay);
+            clientOutboundChannel.subscribe(delivered::add);
+
+            broker = new SimpleBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel,
+                    List.of("/topic", "/queue"));
+            broker.start();
+
+            template = new SimpMessagingTemplate(brokerChannel);
+            template.setMessageConverter(new MappingJackson2MessageConverter());
+        }
+
+        void subscribe(String sessionId, String destination) {
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId(sessionId);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+            delivered.clear(); // CONNECT_ACK
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            accessor.setSessionId(sessionId);
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(destination);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        }
+    }
+}
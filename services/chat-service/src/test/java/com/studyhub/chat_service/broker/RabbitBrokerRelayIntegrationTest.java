@@ -0,0 +1,102 @@
+package com.studyhub.chat_service.broker;
+
+import com.studyhub.chat_service.cache.ClusterCacheInvalidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two relay-mode instances against a real RabbitMQ. Skipped when Docker is not
+ * available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RabbitBrokerRelayIntegrationTest {
+
+    @Container
+    static final RabbitMQContainer RABBIT = new RabbitMQContainer("rabbitmq:3.13-management-alpine");
+
+    private final List<AnnotationConfigApplicationContext> contexts = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        contexts.forEach(AnnotationConfigApplicationContext::close);
+    }
+
+    @Test
+    void broadcastOnOneInstance_isDeliveredOnTheOther() {
+        AnnotationConfigApplicationContext podA = startInstance();
+        AnnotationConfigApplicationContext podB = startInstance();
+
+        List<Message<?>> receivedOnB = new CopyOnWriteArrayList<>();
+        podB.getBean("brokerChannel", ExecutorSubscribableChannel.class).subscribe(receivedOnB::add);
+
+        SimpMessagingTemplate template =
+                new SimpMessagingTemplate(podA.getBean("brokerChannel", ExecutorSubscribableChannel.class));
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        template.convertAndSend("/topic/rooms/1/channels/2", Map.of("content", "hello"));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(receivedOnB).hasSize(1));
+    }
+
+    @Test
+    void cacheInvalidationOnOneInstance_isAppliedOnTheOther() {
+        AnnotationConfigApplicationContext podA = startInstance();
+        AnnotationConfigApplicationContext podB = startInstance();
+
+        List<Long> droppedOnA = new CopyOnWriteArrayList<>();
+        List<Long> droppedOnB = new CopyOnWriteArrayList<>();
+        podA.getBean(ClusterCacheInvalidator.class).register("room-membership", droppedOnA::add);
+        podB.getBean(ClusterCacheInvalidator.class).register("room-membership", droppedOnB::add);
+
+        podA.getBean(ClusterCacheInvalidator.class).publish("room-membership", 42L);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(droppedOnB).containsExactly(42L));
+        assertThat(droppedOnA).isEmpty();
+    }
+
+    private AnnotationConfigApplicationContext startInstance() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("relay", Map.of(
+                "app.websocket.broker.mode", "relay",
+                "app.websocket.broker.relay.host", RABBIT.getHost(),
+                "app.websocket.broker.relay.port", RABBIT.getAmqpPort(),
+                "app.websocket.broker.relay.username", RABBIT.getAdminUsername(),
+                "app.websocket.broker.relay.password", RABBIT.getAdminPassword())));
+        context.register(InstanceConfig.class);
+        context.refresh();
+        context.getBean("brokerChannel", ExecutorSubscribableChannel.class)
+                .addInterceptor(context.getBean(ClusterBroadcastRelay.class));
+        contexts.add(context);
+        return context;
+    }
+
+    @Configuration
+    @Import({RabbitBrokerRelayConfig.class, ClusterCacheInvalidator.class})
+    static class InstanceConfig {
+
+        @Bean
+        ExecutorSubscribableChannel brokerChannel() {
+            return new ExecutorSubscribableChannel();
+        }
+    }
+}
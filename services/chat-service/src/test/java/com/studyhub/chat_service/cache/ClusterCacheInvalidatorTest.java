@@ -0,0 +1,54 @@
+package com.studyhub.chat_service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class ClusterCacheInvalidatorTest {
+
+    @Test
+    void publishedInvalidation_runsTheHandlerOnOtherInstancesOnly() {
+        List<CacheInvalidation> sent = new ArrayList<>();
+        ClusterCacheInvalidator sender = invalidator(sent::add);
+        ClusterCacheInvalidator receiver = invalidator(sent::add);
+        List<Long> droppedBySender = new ArrayList<>();
+        List<Long> droppedByReceiver = new ArrayList<>();
+        sender.register("rooms", droppedBySender::add);
+        receiver.register("rooms", droppedByReceiver::add);
+
+        sender.publish("rooms", 42L);
+        sent.forEach(sender::receive);
+        sent.forEach(receiver::receive);
+
+        assertThat(droppedBySender).isEmpty();
+        assertThat(droppedByReceiver).containsExactly(42L);
+    }
+
+    @Test
+    void withoutTransport_publishIsANoOp() {
+        ClusterCacheInvalidator single = new ClusterCacheInvalidator(
+                new StaticListableBeanFactory().getBeanProvider(CacheInvalidationTransport.class));
+
+        assertThatCode(() -> single.publish("rooms", 1L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void transportFailure_doesNotPropagate() {
+        ClusterCacheInvalidator invalidator = invalidator(invalidation -> {
+            throw new IllegalStateException("broker down");
+        });
+
+        assertThatCode(() -> invalidator.publish("rooms", 1L)).doesNotThrowAnyException();
+    }
+
+    private static ClusterCacheInvalidator invalidator(CacheInvalidationTransport transport) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("transport", transport);
+        return new ClusterCacheInvalidator(beanFactory.getBeanProvider(CacheInvalidationTransport.class));
+    }
+}
@@ -0,0 +1,94 @@
+package com.studyhub.chat_service.cache;
+
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PinnedMessageCacheTest {
+
+    private static final String CACHE = "chat.pinned-messages";
+
+    @Mock
+    private ClusterCacheInvalidator clusterInvalidator;
+
+    private PinnedMessageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PinnedMessageCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), clusterInvalidator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void invalidate_dropsChannelNowAndAfterCommitThenTellsOtherInstances() {
+        cache.get(10L, id -> List.of(pinned(1L)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(10L);
+
+        assertThat(cache.get(10L, id -> List.of(pinned(2L)))).extracting(MessageResponse::getId).containsExactly(2L);
+        verify(clusterInvalidator, never()).publish(anyString(), any());
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(cache.get(10L, id -> List.of(pinned(3L)))).extracting(MessageResponse::getId).containsExactly(3L);
+        verify(clusterInvalidator).publish(CACHE, 10L);
+    }
+
+    @Test
+    void rollback_dropsChannelWithoutTellingOtherInstances() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(10L);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(clusterInvalidator, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void invalidationFromAnotherInstance_dropsTheChannel() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<Long>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(clusterInvalidator).register(eq(CACHE), handler.capture());
+        cache.get(10L, id -> List.of(pinned(1L)));
+
+        handler.getValue().accept(10L);
+
+        assertThat(cache.get(10L, id -> List.of(pinned(2L)))).extracting(MessageResponse::getId).containsExactly(2L);
+        verify(clusterInvalidator, never()).publish(anyString(), any());
+    }
+
+    private static MessageResponse pinned(Long id) {
+        return MessageResponse.builder().id(id).isPinned(true).build();
+    }
+
+    private void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.studyhub.chat_service.cache;
+
+import com.studyhub.chat_service.repository.RoomMemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomMembershipCacheTest {
+
+    @Mock
+    private RoomMemberRepository roomMemberRepository;
+
+    private RoomMembershipCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RoomMembershipCache(roomMemberRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void roomIsLoadedOnceAndAnswersAllChecks() {
+        when(roomMemberRepository.findMemberFlagsByRoomId(1L)).thenReturn(List.of(
+                new Object[]{7L, true},
+                new Object[]{8L, false}));
+
+        assertThat(cache.isMember(1L, 7L)).isTrue();
+        assertThat(cache.isOwner(1L, 7L)).isTrue();
+        assertThat(cache.isMember(1L, 8L)).isTrue();
+        assertThat(cache.isOwner(1L, 8L)).isFalse();
+        assertThat(cache.isMember(1L, 9L)).isFalse();
+        assertThat(cache.memberCount(1L)).isEqualTo(2);
+
+        verify(roomMemberRepository, times(1)).findMemberFlagsByRoomId(1L);
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        when(roomMemberRepository.findMemberFlagsByRoomId(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, true}))
+                .thenReturn(List.of());
+
+        assertThat(cache.isMember(1L, 7L)).isTrue();
+        cache.invalidate(1L);
+        assertThat(cache.isMember(1L, 7L)).isFalse();
+    }
+}
@@ -0,0 +1,86 @@
+package com.studyhub.chat_service.cache;
+
+import com.studyhub.chat_service.client.UserClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserInfoCacheTest {
+
+    @Mock
+    private UserClient userClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserInfoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserInfoCache(userClient, meterRegistry, 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void getAll_loadsMissesOnceAndServesHitsLocally() {
+        when(userClient.getUsersByIds(anyCollection())).thenReturn(List.of(
+                new UserClient.UserInfo(1L, "alice", "Alice", null),
+                new UserClient.UserInfo(2L, "bob", "Bob", null)));
+
+        Map<Long, UserClient.UserInfo> first = cache.getAll(Set.of(1L, 2L));
+        Map<Long, UserClient.UserInfo> second = cache.getAll(Set.of(1L, 2L));
+
+        assertThat(first).containsOnlyKeys(1L, 2L);
+        assertThat(second.get(2L).getUsername()).isEqualTo("bob");
+        verify(userClient, times(1)).getUsersByIds(anyCollection());
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "chat.user-info").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void getAll_negativeCachesUnknownUsers() {
+        when(userClient.getUsersByIds(anyCollection())).thenReturn(List.of());
+
+        assertThat(cache.getAll(Set.of(99L))).isEmpty();
+        assertThat(cache.getAll(Set.of(99L))).isEmpty();
+
+        verify(userClient, times(1)).getUsersByIds(anyCollection());
+    }
+
+    @Test
+    void getAll_doesNotCacheFailedLoads() {
+        when(userClient.getUsersByIds(anyCollection()))
+                .thenThrow(new RuntimeException("user-service down"))
+                .thenReturn(List.of(new UserClient.UserInfo(1L, "alice", "Alice", null)));
+
+        assertThatThrownBy(() -> cache.getAll(Set.of(1L))).isInstanceOf(CompletionException.class);
+        assertThat(cache.getAll(Set.of(1L))).containsOnlyKeys(1L);
+
+        verify(userClient, times(2)).getUsersByIds(anyCollection());
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        when(userClient.getUsersByIds(anyCollection()))
+                .thenReturn(List.of(new UserClient.UserInfo(1L, "alice", "Alice", null)))
+                .thenReturn(List.of(new UserClient.UserInfo(1L, "alice", "Alice Nguyen", null)));
+
+        cache.getAll(Set.of(1L));
+        cache.invalidate(1L);
+
+        assertThat(cache.getAll(Set.of(1L)).get(1L).getFullName()).isEqualTo("Alice Nguyen");
+    }
+}
@@ -0,0 +1,148 @@
+package com.studyhub.chat_service.config;
+
+import com.studyhub.chat_service.dto.response.RateLimitError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SendRateLimitInterceptorTest {
+
+    private static final String MESSAGES = "/app/rooms/1/channels/10/messages";
+    private static final String TYPING = "/app/rooms/1/channels/10/typing";
+    private static final String ERRORS = SendRateLimitInterceptor.ERROR_DESTINATION + "-usersession-a";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private SendRateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        // messages: 10/s with a burst of 3; typing: 2/s with a burst of 1
+        interceptor = new SendRateLimitInterceptor(messagingTemplate, meterRegistry,
+                SendRateLimitInterceptor.Limit.of(10, 3), SendRateLimitInterceptor.Limit.of(2, 1),
+                1000, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    void send_allowsABurstThenDropsAndRefillsAtTheSustainedRate() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(interceptor.preSend(send(7L, MESSAGES), null)).isNotNull();
+        }
+        assertThat(interceptor.preSend(send(7L, MESSAGES), null)).isNull();
+        assertThat(interceptor.preSend(send(7L, MESSAGES), null)).isNull();
+
+        clock.advance(Duration.ofMillis(100));
+        assertThat(interceptor.preSend(send(7L, MESSAGES), null)).isNotNull();
+        assertThat(interceptor.preSend(send(7L, MESSAGES), null)).isNull();
+
+        assertThat(rejected("messages")).isEqualTo(3.0);
+    }
+
+    @Test
+    void send_tellsTheSessionOncePerBurstOfDroppedFrames() {
+        for (int i = 0; i < 6; i++) {
+            interceptor.preSend(send(7L, MESSAGES), null);
+        }
+
+        ArgumentCaptor<Object> error = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(ERRORS), error.capture());
+        RateLimitError payload = (RateLimitError) error.getValue();
+        assertThat(payload.getError()).isEqualTo(RateLimitError.ERROR);
+        assertThat(payload.getDestination()).isEqualTo(MESSAGES);
+        assertThat(payload.getRetryAfterMillis()).isBetween(1L, 101L);
+
+        // Accepted again, then over the limit again: a second notice
+        clock.advance(Duration.ofMillis(100));
+        interceptor.preSend(send(7L, MESSAGES), null);
+        interceptor.preSend(send(7L, MESSAGES), null);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(ERRORS), any(Object.class));
+    }
+
+    @Test
+    void send_limitsTypingSeparatelyFromMessagesAndUsersSeparately() {
+        assertThat(interceptor.preSend(send(7L, TYPING), null)).isNotNull();
+        assertThat(interceptor.preSend(send(7L, TYPING), null)).isNull();
+
+        assertThat(interceptor.preSend(send(7L, MESSAGES), null)).isNotNull();
+        assertThat(interceptor.preSend(send(8L, TYPING), null)).isNotNull();
+
+        assertThat(rejected("typing")).isEqualTo(1.0);
+        assertThat(rejected("messages")).isZero();
+    }
+
+    @Test
+    void otherFrames_areNotLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, 7L, "/topic/rooms/1"), null)).isNotNull();
+        }
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    private double rejected(String type) {
+        return meterRegistry.get("chat.websocket.rate-limited").tag("type", type).counter().count();
+    }
+
+    private static Message<byte[]> send(Long userId, String destination) {
+        return frame(SimpMessageType.MESSAGE, userId, destination);
+    }
+
+    private static Message<byte[]> frame(SimpMessageType type, Long userId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId("session-a");
+        accessor.setDestination(destination);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(WebSocketAuthInterceptor.SESSION_USER_ID, userId);
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-01-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
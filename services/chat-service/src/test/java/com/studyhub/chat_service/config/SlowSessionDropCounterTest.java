@@ -0,0 +1,66 @@
+package com.studyhub.chat_service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlowSessionDropCounterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlowSessionDropCounter dropCounter = new SlowSessionDropCounter(meterRegistry);
+    private final WebSocketHandler delegate = mock(WebSocketHandler.class);
+    private final WebSocketSession session = mock(WebSocketSession.class);
+
+    @BeforeEach
+    void setUp() {
+        when(session.getId()).thenReturn("s1");
+    }
+
+    @Test
+    void sessionClosedAsNotReliableAfterConnect_isCountedAsSlowConsumer() throws Exception {
+        WebSocketHandler handler = dropCounter.decorate(delegate);
+        TextMessage connect = new TextMessage("CONNECT\n\n\u0000");
+
+        handler.handleMessage(session, connect);
+        handler.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+
+        assertThat(droppedCount("slow-consumer")).isEqualTo(1.0);
+        assertThat(droppedCount("no-connect")).isZero();
+        verify(delegate).handleMessage(session, connect);
+        verify(delegate).afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void sessionClosedAsNotReliableBeforeAnyFrame_isCountedAsNoConnect() throws Exception {
+        WebSocketHandler handler = dropCounter.decorate(delegate);
+
+        handler.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+
+        assertThat(droppedCount("no-connect")).isEqualTo(1.0);
+        assertThat(droppedCount("slow-consumer")).isZero();
+    }
+
+    @Test
+    void normalClose_isNotCounted() throws Exception {
+        WebSocketHandler handler = dropCounter.decorate(delegate);
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        handler.afterConnectionClosed(session, CloseStatus.GOING_AWAY);
+
+        assertThat(droppedCount("slow-consumer")).isZero();
+        assertThat(droppedCount("no-connect")).isZero();
+    }
+
+    private double droppedCount(String reason) {
+        return meterRegistry.get("chat.websocket.sessions.dropped").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,116 @@
+package com.studyhub.chat_service.config;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionAuthorizationInterceptorTest {
+
+    @Mock
+    private RoomMembershipCache membershipCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SubscriptionAuthorizationInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new SubscriptionAuthorizationInterceptor(membershipCache, meterRegistry);
+    }
+
+    @Test
+    void subscribe_allowsMembersOnAnyTopicOfTheirRoom() {
+        when(membershipCache.isMember(12L, 7L)).thenReturn(true);
+
+        Message<?> subscribe = frame(SimpMessageType.SUBSCRIBE, "/topic/rooms/12/channels/3", 7L);
+
+        assertThat(interceptor.preSend(subscribe, null)).isSameAs(subscribe);
+        assertThat(interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, "/topic/rooms/12", 7L), null)).isNotNull();
+        assertThat(rejected()).isZero();
+    }
+
+    @Test
+    void subscribe_rejectsNonMembersWithAnErrorFrame() {
+        when(membershipCache.isMember(12L, 7L)).thenReturn(false);
+
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(SimpMessageType.SUBSCRIBE, "/topic/rooms/12/channels/3", 7L), null))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(rejected()).isEqualTo(1.0);
+    }
+
+    @Test
+    void subscribe_rejectsMalformedAndForeignDestinationsWithoutLookingUpMembership() {
+        for (String destination : new String[] {
+                "/topic/rooms/", "/topic/rooms/abc", "/topic/rooms/*/channels/3", "/topic/rooms/1x",
+                "/topic/rooms/12345678901234567890", "/topic/other", "/queue/messages-usersession-b"}) {
+            assertThatThrownBy(() -> interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, destination, 7L), null))
+                    .as(destination)
+                    .isInstanceOf(AccessDeniedException.class);
+        }
+        verifyNoInteractions(membershipCache);
+    }
+
+    @Test
+    void subscribe_allowsOwnUserQueues() {
+        interceptor.preSend(frame(SimpMessageType.SUBSCRIBE, "/user/queue/messages/ack", 7L), null);
+
+        verifyNoInteractions(membershipCache);
+        assertThat(rejected()).isZero();
+    }
+
+    @Test
+    void subscribe_withoutResolvedUser_isRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(SimpMessageType.SUBSCRIBE, "/topic/rooms/12", null), null))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void otherFrames_passThroughUnchecked() {
+        Message<?> send = frame(SimpMessageType.MESSAGE, "/app/chat.send", 7L);
+
+        assertThat(interceptor.preSend(send, null)).isSameAs(send);
+        verifyNoInteractions(membershipCache);
+    }
+
+    @Test
+    void roomIdOf_parsesTheRoomSegment() {
+        assertThat(SubscriptionAuthorizationInterceptor.roomIdOf("/topic/rooms/42")).isEqualTo(42L);
+        assertThat(SubscriptionAuthorizationInterceptor.roomIdOf("/topic/rooms/42/members/left")).isEqualTo(42L);
+        assertThat(SubscriptionAuthorizationInterceptor.roomIdOf("/topic/rooms//channels/1")).isEqualTo(-1L);
+    }
+
+    private double rejected() {
+        return meterRegistry.get("chat.websocket.subscriptions.rejected").counter().count();
+    }
+
+    static Message<byte[]> frame(SimpMessageType type, String destination, Long userId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId("session-a");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(destination);
+        Map<String, Object> attributes = new HashMap<>();
+        if (userId != null) {
+            attributes.put(WebSocketAuthInterceptor.SESSION_USER_ID, userId);
+        }
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
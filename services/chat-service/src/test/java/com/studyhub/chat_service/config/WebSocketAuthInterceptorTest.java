@@ -0,0 +1,54 @@
+package com.studyhub.chat_service.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebSocketAuthInterceptorTest {
+
+    private final JwtDecoder jwtDecoder = mock(JwtDecoder.class);
+    private final WebSocketAuthInterceptor interceptor = new WebSocketAuthInterceptor(jwtDecoder);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void connect_authenticatesTheSessionWithoutTouchingTheThreadsSecurityContext() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("jdoe")
+                .claim("user_id", 7L)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+        when(jwtDecoder.decode("token")).thenReturn(jwt);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId("s1");
+        accessor.setSessionAttributes(new HashMap<>());
+        accessor.setNativeHeader("Authorization", "Bearer token");
+        accessor.setLeaveMutable(true);
+        Message<byte[]> connect = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        interceptor.preSend(connect, null);
+
+        assertThat(accessor.getUser()).isNotNull();
+        assertThat(WebSocketAuthInterceptor.sessionUserId(connect.getHeaders())).isEqualTo(7L);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+}
@@ -0,0 +1,85 @@
+package com.studyhub.chat_service.event;
+
+import com.studyhub.chat_service.cache.ClusterCacheInvalidator;
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomMembershipEventRelayTest {
+
+    @Mock
+    private RoomMembershipCache membershipCache;
+
+    @Mock
+    private ClusterCacheInvalidator clusterInvalidator;
+
+    private RoomMembershipEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new RoomMembershipEventRelay(membershipCache, clusterInvalidator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void change_dropsRoomNowAndAfterCommitThenTellsOtherInstances() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        relay.onMembershipChanged(new RoomMembershipChangedEvent(1L));
+
+        verify(membershipCache).invalidate(1L);
+        verify(clusterInvalidator, never()).publish(anyString(), any());
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        verify(membershipCache, times(2)).invalidate(1L);
+        verify(clusterInvalidator).publish(RoomMembershipEventRelay.CACHE, 1L);
+    }
+
+    @Test
+    void rollback_dropsRoomWithoutTellingOtherInstances() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        relay.onMembershipChanged(new RoomMembershipChangedEvent(1L));
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(membershipCache, times(2)).invalidate(1L);
+        verify(clusterInvalidator, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void changeOutsideTransaction_isPublishedAtOnce() {
+        relay.onMembershipChanged(new RoomMembershipChangedEvent(5L));
+
+        verify(membershipCache).invalidate(5L);
+        verify(clusterInvalidator).publish(RoomMembershipEventRelay.CACHE, 5L);
+    }
+
+    @Test
+    void registersTheCacheForRemoteInvalidation() {
+        verify(clusterInvalidator).register(eq(RoomMembershipEventRelay.CACHE), any());
+    }
+
+    private void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.studyhub.chat_service.repository;
+
+import com.studyhub.chat_service.entity.Channel;
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.Room;
+import com.studyhub.chat_service.entity.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class MessageRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    private Channel channel;
+    private final List<Message> messages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Room room = entityManager.persist(Room.builder()
+                .name("Room").creatorId(1L).isPublic(true).roomType(RoomType.GROUP.toString()).maxMembers(50)
+                .build());
+        channel = entityManager.persist(Channel.builder().room(room).name("General").build());
+
+        // Five messages, the middle three sharing one timestamp, plus one deleted
+        messages.add(persist(T0, false));
+        messages.add(persist(T0.plusSeconds(1), false));
+        messages.add(persist(T0.plusSeconds(1), false));
+        messages.add(persist(T0.plusSeconds(1), true));
+        messages.add(persist(T0.plusSeconds(1), false));
+        messages.add(persist(T0.plusSeconds(2), false));
+        entityManager.clear();
+    }
+
+    @Test
+    void walkingBackwards_visitsEveryVisibleMessageOnceInOrder() {
+        List<Long> visited = new ArrayList<>();
+        Slice<Message> slice = messageRepository.findLatestByChannelId(channel.getId(), PageRequest.of(0, 2));
+        slice.forEach(message -> visited.add(message.getId()));
+
+        while (slice.hasNext()) {
+            Message last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            slice = messageRepository.findByChannelIdBefore(
+                    channel.getId(), last.getCreatedAt(), last.getId(), PageRequest.of(0, 2));
+            slice.forEach(message -> visited.add(message.getId()));
+        }
+
+        assertThat(visited).containsExactly(id(5), id(4), id(2), id(1), id(0));
+    }
+
+    @Test
+    void after_returnsNewerMessagesOldestFirst() {
+        Slice<Message> slice = messageRepository.findByChannelIdAfter(
+                channel.getId(), T0.plusSeconds(1), id(1), PageRequest.of(0, 2));
+
+        assertThat(slice.getContent()).extracting(Message::getId).containsExactly(id(2), id(4));
+        assertThat(slice.hasNext()).isTrue();
+    }
+
+    @Test
+    void pinnedQueries_areScopedToTheChannelAndSkipDeletedMessages() {
+        Channel other = entityManager.persist(Channel.builder().room(channel.getRoom()).name("Other").build());
+        pin(id(1), id(3), id(5));
+        entityManager.persistAndFlush(Message.builder()
+                .channel(other).senderId(1L).content("m").isPinned(true).isEdited(false).isDeleted(false)
+                .build());
+        entityManager.clear();
+
+        assertThat(messageRepository.findPinnedMessagesByChannelId(channel.getId()))
+                .extracting(Message::getId).containsExactly(id(5), id(1));
+        assertThat(messageRepository.countPinnedMessagesByChannelId(channel.getId())).isEqualTo(2);
+        assertThat(messageRepository.countPinnedMessagesByChannelId(other.getId())).isEqualTo(1);
+    }
+
+    private void pin(Long... ids) {
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Message m SET m.isPinned = true WHERE m.id IN :ids")
+                .setParameter("ids", List.of(ids))
+                .executeUpdate();
+    }
+
+    private Long id(int index) {
+        return messages.get(index).getId();
+    }
+
+    private Message persist(LocalDateTime createdAt, boolean deleted) {
+        Message message = entityManager.persistAndFlush(Message.builder()
+                .channel(channel).senderId(1L).content("m").isPinned(false).isEdited(false).isDeleted(deleted)
+                .build());
+        // created_at is set by Hibernate on insert; pin it for deterministic ordering
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE messages SET created_at = ?1 WHERE id = ?2")
+                .setParameter(1, createdAt)
+                .setParameter(2, message.getId())
+                .executeUpdate();
+        return message;
+    }
+}
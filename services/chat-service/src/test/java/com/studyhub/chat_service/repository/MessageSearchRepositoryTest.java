@@ -0,0 +1,128 @@
+package com.studyhub.chat_service.repository;
+
+import com.studyhub.chat_service.entity.Channel;
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.Room;
+import com.studyhub.chat_service.entity.RoomMember;
+import com.studyhub.chat_service.entity.RoomMemberId;
+import com.studyhub.chat_service.entity.RoomType;
+import com.studyhub.chat_service.repository.MessageSearchRepository.SearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against PostgreSQL with the Flyway schema, since search relies on the
+ * generated tsvector column. Needs Docker.
+ */
+@DataJpaTest
+@Import(MessageSearchRepository.class)
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MessageSearchRepositoryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MessageSearchRepository searchRepository;
+
+    private Channel mine;
+    private Channel notMine;
+
+    @BeforeEach
+    void setUp() {
+        mine = channel(room("Algorithms", 1L));
+        notMine = channel(room("Physics", 2L));
+    }
+
+    @Test
+    void search_findsLiveMessagesInMyRoomsWithHighlightedSnippets() {
+        Message hit = message(mine, "Dijkstra shortest path <b>homework</b> is due", false);
+        message(mine, "deleted homework", true);
+        message(mine, "unrelated chatter", false);
+        message(notMine, "homework for another room", false);
+        entityManager.flush();
+
+        List<SearchHit> hits = searchRepository.search(1L, "homework", null, null, null, null, 10);
+
+        assertThat(hits).extracting(SearchHit::messageId).containsExactly(hit.getId());
+        assertThat(hits.get(0).snippet())
+                .contains(MessageSearchRepository.MATCH_START + "homework" + MessageSearchRepository.MATCH_END);
+    }
+
+    @Test
+    void search_stripsMarkerCharactersFromMessageText() {
+        message(mine, "fake \u0002marker\u0003 around homework", false);
+        entityManager.flush();
+
+        List<SearchHit> hits = searchRepository.search(1L, "homework", null, null, null, null, 10);
+
+        assertThat(hits).singleElement().extracting(SearchHit::snippet)
+                .isEqualTo("fake marker around " + MessageSearchRepository.MATCH_START + "homework"
+                        + MessageSearchRepository.MATCH_END);
+    }
+
+    @Test
+    void search_pagesNewestFirstByKeyset() {
+        Message first = message(mine, "exam notes part one", false);
+        Message second = message(mine, "exam notes part two", false);
+        Message third = message(mine, "exam notes part three", false);
+        entityManager.flush();
+
+        List<SearchHit> page = searchRepository.search(1L, "exam", null, mine.getId(), null, null, 2);
+        SearchHit last = page.get(1);
+        List<SearchHit> next = searchRepository.search(1L, "exam", null, mine.getId(),
+                last.createdAt(), last.messageId(), 2);
+
+        assertThat(page).extracting(SearchHit::messageId).containsExactly(third.getId(), second.getId());
+        assertThat(next).extracting(SearchHit::messageId).containsExactly(first.getId());
+    }
+
+    private Room room(String name, Long memberId) {
+        Room room = entityManager.persist(Room.builder()
+                .name(name).creatorId(memberId).isPublic(true).roomType(RoomType.GROUP.toString()).maxMembers(50)
+                .build());
+        entityManager.persist(RoomMember.builder()
+                .id(new RoomMemberId(room.getId(), memberId))
+                .room(room)
+                .isOwner(true)
+                .build());
+        return room;
+    }
+
+    private Channel channel(Room room) {
+        return entityManager.persist(Channel.builder().room(room).name("General").build());
+    }
+
+    private Message message(Channel channel, String content, boolean deleted) {
+        return entityManager.persistAndFlush(Message.builder()
+                .channel(channel).senderId(1L).content(content).isPinned(false).isEdited(false).isDeleted(deleted)
+                .build());
+    }
+}
@@ -0,0 +1,99 @@
+package com.studyhub.chat_service.repository;
+
+import com.studyhub.chat_service.dto.response.UnreadCountResponse;
+import com.studyhub.chat_service.entity.Channel;
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.Room;
+import com.studyhub.chat_service.entity.RoomMember;
+import com.studyhub.chat_service.entity.RoomMemberId;
+import com.studyhub.chat_service.entity.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class RoomMemberRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RoomMemberRepository roomMemberRepository;
+
+    private Room busy;
+    private Room quiet;
+    private Channel general;
+    private Channel random;
+
+    @BeforeEach
+    void setUp() {
+        busy = room("Busy", 1L, 2L);
+        quiet = room("Quiet", 1L);
+        general = entityManager.persist(Channel.builder().room(busy).name("General").build());
+        random = entityManager.persist(Channel.builder().room(busy).name("Random").build());
+        entityManager.persist(Channel.builder().room(quiet).name("General").build());
+    }
+
+    @Test
+    void findUnreadCountsByUserId_countsOthersLiveMessagesAcrossChannels() {
+        message(general, 2L, false);
+        message(random, 2L, false);
+        message(general, 1L, false); // own message
+        message(general, 2L, true);  // deleted
+        entityManager.flush();
+
+        List<UnreadCountResponse> counts = roomMemberRepository.findUnreadCountsByUserId(1L);
+
+        assertThat(counts).extracting(UnreadCountResponse::getRoomId)
+                .containsExactlyInAnyOrder(busy.getId(), quiet.getId());
+        assertThat(unreadIn(counts, busy)).isEqualTo(2L);
+        assertThat(unreadIn(counts, quiet)).isZero();
+    }
+
+    @Test
+    void updateReadCursor_onlyMovesForward() {
+        Message first = message(general, 2L, false);
+        Message second = message(general, 2L, false);
+        entityManager.flush();
+
+        assertThat(roomMemberRepository.updateReadCursor(busy.getId(), 1L, first.getId())).isEqualTo(1);
+        assertThat(unreadIn(roomMemberRepository.findUnreadCountsByUserId(1L), busy)).isEqualTo(1L);
+
+        assertThat(roomMemberRepository.updateReadCursor(busy.getId(), 1L, second.getId())).isEqualTo(1);
+        assertThat(roomMemberRepository.updateReadCursor(busy.getId(), 1L, first.getId())).isZero();
+        assertThat(unreadIn(roomMemberRepository.findUnreadCountsByUserId(1L), busy)).isZero();
+    }
+
+    private Long unreadIn(List<UnreadCountResponse> counts, Room room) {
+        return counts.stream()
+                .filter(count -> count.getRoomId().equals(room.getId()))
+                .findFirst().orElseThrow()
+                .getUnreadCount();
+    }
+
+    private Message message(Channel channel, Long senderId, boolean deleted) {
+        return entityManager.persist(Message.builder()
+                .channel(channel).senderId(senderId).content("hi").isPinned(false).isEdited(false).isDeleted(deleted)
+                .build());
+    }
+
+    private Room room(String name, Long... userIds) {
+        Room room = entityManager.persist(Room.builder()
+                .name(name).creatorId(userIds[0]).isPublic(true).roomType(RoomType.GROUP.toString()).maxMembers(50)
+                .build());
+        for (Long userId : userIds) {
+            entityManager.persist(RoomMember.builder()
+                    .id(new RoomMemberId(room.getId(), userId))
+                    .room(room)
+                    .isOwner(userId.equals(userIds[0]))
+                    .build());
+        }
+        return room;
+    }
+}
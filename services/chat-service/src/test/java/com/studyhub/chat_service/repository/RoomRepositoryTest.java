@@ -0,0 +1,114 @@
+package com.studyhub.chat_service.repository;
+
+import com.studyhub.chat_service.dto.response.RoomSummaryRow;
+import com.studyhub.chat_service.entity.Channel;
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.Room;
+import com.studyhub.chat_service.entity.RoomMember;
+import com.studyhub.chat_service.entity.RoomMemberId;
+import com.studyhub.chat_service.entity.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class RoomRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Room busy;
+    private Room quiet;
+    private Room hidden;
+
+    @BeforeEach
+    void setUp() {
+        busy = room("Busy", true, 1L, 2L, 3L);
+        quiet = room("Quiet", true, 1L);
+        hidden = room("Hidden", false, 2L);
+
+        Channel channel = entityManager.persist(Channel.builder().room(busy).name("General").build());
+        Message message = entityManager.persist(Message.builder()
+                .channel(channel).senderId(2L).content("hi").isPinned(false).isEdited(false).isDeleted(false)
+                .build());
+        entityManager.flush();
+        roomRepository.updateLastMessage(busy.getId(), message.getId(), message.getCreatedAt());
+        entityManager.clear();
+    }
+
+    @Test
+    void findRoomSummariesByUserId_returnsCountsOwnershipAndLastMessage() {
+        List<RoomSummaryRow> rows = roomRepository.findRoomSummariesByUserId(1L);
+
+        assertThat(rows).extracting(RoomSummaryRow::id).containsExactlyInAnyOrder(busy.getId(), quiet.getId());
+        RoomSummaryRow busyRow = rows.stream().filter(row -> row.id().equals(busy.getId())).findFirst().orElseThrow();
+        assertThat(busyRow.memberCount()).isEqualTo(3L);
+        assertThat(busyRow.isOwner()).isTrue();
+        assertThat(busyRow.lastMessageAt()).isNotNull();
+
+        RoomSummaryRow quietRow = rows.stream().filter(row -> row.id().equals(quiet.getId())).findFirst().orElseThrow();
+        assertThat(quietRow.memberCount()).isEqualTo(1L);
+        assertThat(quietRow.lastMessageAt()).isNull();
+    }
+
+    @Test
+    void updateLastMessage_neverMovesThePointerBack() {
+        Long latest = roomRepository.findById(busy.getId()).orElseThrow().getLastMessageId();
+
+        assertThat(roomRepository.updateLastMessage(busy.getId(), latest - 1, LocalDateTime.now())).isZero();
+        assertThat(roomRepository.updateLastMessage(busy.getId(), latest + 1, LocalDateTime.now())).isEqualTo(1);
+    }
+
+    @Test
+    void directMessages_areFoundByPairKeyAndListedByType() {
+        Room dm = room("DM: 1 - 2", false, 1L, 2L);
+        dm.setRoomType(RoomType.DIRECT_MESSAGE.toString());
+        dm.setDmKey(Room.directMessageKey(2L, 1L));
+        entityManager.flush();
+
+        assertThat(roomRepository.findByDmKey("1:2")).get().extracting(Room::getId).isEqualTo(dm.getId());
+        assertThat(roomRepository.findRoomSummariesByUserIdAndRoomType(1L, RoomType.DIRECT_MESSAGE.toString()))
+                .extracting(RoomSummaryRow::id).containsExactly(dm.getId());
+    }
+
+    @Test
+    void publicDirectory_pagesNewestFirstAndSkipsPrivateRooms() {
+        Slice<RoomSummaryRow> first = roomRepository.findPublicRoomSummaries(PageRequest.of(0, 1));
+        assertThat(first.getContent()).extracting(RoomSummaryRow::id).containsExactly(quiet.getId());
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<RoomSummaryRow> second = roomRepository.findPublicRoomSummariesBefore(quiet.getId(), PageRequest.of(0, 1));
+        assertThat(second.getContent()).extracting(RoomSummaryRow::id).containsExactly(busy.getId());
+        assertThat(second.getContent().get(0).memberCount()).isEqualTo(3L);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    /**
+     * The first user is the owner
+     */
+    private Room room(String name, boolean isPublic, Long... userIds) {
+        Room room = entityManager.persist(Room.builder()
+                .name(name).creatorId(userIds[0]).isPublic(isPublic).roomType(RoomType.GROUP.toString()).maxMembers(50)
+                .build());
+        for (int i = 0; i < userIds.length; i++) {
+            entityManager.persist(RoomMember.builder()
+                    .id(new RoomMemberId(room.getId(), userIds[i]))
+                    .room(room)
+                    .isOwner(i == 0)
+                    .build());
+        }
+        return room;
+    }
+}
@@ -0,0 +1,209 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.dto.request.AttachmentDto;
+import com.studyhub.chat_service.dto.request.SendMessageRequest;
+import com.studyhub.chat_service.dto.response.MessageAck;
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import com.studyhub.chat_service.entity.Channel;
+import com.studyhub.chat_service.entity.Message;
+import com.studyhub.chat_service.entity.Room;
+import com.studyhub.chat_service.exception.UnauthorizedException;
+import com.studyhub.chat_service.repository.ChannelRepository;
+import com.studyhub.chat_service.repository.MessageBatchWriter;
+import com.studyhub.chat_service.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageIngestServiceTest {
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private MessageBatchWriter batchWriter;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private ChannelRepository channelRepository;
+
+    @Mock
+    private RoomMembershipCache membershipCache;
+
+    @Mock
+    private OutboundBroadcaster broadcaster;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MessageIngestService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void directMode_storesSynchronouslyAndAcksPersisted() {
+        service = service("direct");
+        when(messageService.sendMessage(eq(1L), eq(10L), any(), eq(7L)))
+                .thenReturn(MessageResponse.builder().id(500L).roomId(1L).build());
+
+        MessageAck ack = service.submit(1L, 10L, request("hello", "c-1"), 7L);
+
+        assertThat(ack.getStatus()).isEqualTo(MessageAck.Status.PERSISTED);
+        assertThat(ack.getMessageId()).isEqualTo(500L);
+        verify(broadcaster).toUser(1L, "7", MessageIngestService.ACK_DESTINATION, ack);
+        verifyNoInteractions(batchWriter);
+    }
+
+    @Test
+    void writeBehind_acceptsAtOnceAndAssignsIdsWhenWritingOneBatch() {
+        service = service("write-behind");
+        stubValidRoom();
+        when(batchWriter.allocateMessageIds(2)).thenReturn(List.of(100L, 101L));
+        when(messageService.resolveSenders(Set.of(7L))).thenReturn(Map.of(
+                7L, new MessageResponse.SenderInfo(7L, "alice", "Alice", null)));
+
+        SendMessageRequest withAttachment = request("notes", "c-2");
+        withAttachment.setAttachments(List.of(new AttachmentDto("f-1", "notes.pdf", "application/pdf", 10L)));
+        MessageAck first = service.submit(1L, 10L, request("hello", "c-1"), 7L);
+        MessageAck second = service.submit(1L, 10L, withAttachment, 7L);
+
+        assertThat(first.getStatus()).isEqualTo(MessageAck.Status.ACCEPTED);
+        assertThat(first.getMessageId()).isNull();
+        assertThat(second.getMessageId()).isNull();
+        verify(batchWriter, never()).allocateMessageIds(anyInt());
+        verify(batchWriter, never()).insertMessages(any());
+
+        service.flush();
+
+        ArgumentCaptor<List<Message>> written = ArgumentCaptor.captor();
+        verify(batchWriter, times(1)).insertMessages(written.capture());
+        assertThat(written.getValue()).extracting(Message::getId).containsExactly(100L, 101L);
+        verify(batchWriter).insertAttachments(argThat(attachments -> attachments.size() == 1));
+        verify(roomRepository).updateLastMessage(eq(1L), eq(101L), any());
+        verify(broadcaster).toChannel(eq(1L), eq(10L), eq(100L), any(MessageResponse.class));
+        verify(broadcaster).toChannel(eq(1L), eq(10L), eq(101L), any(MessageResponse.class));
+        verify(broadcaster).toUser(eq(1L), eq("7"), eq(MessageIngestService.ACK_DESTINATION),
+                argThat(ack -> ((MessageAck) ack).getStatus() == MessageAck.Status.PERSISTED
+                        && "c-1".equals(((MessageAck) ack).getClientMessageId())
+                        && Long.valueOf(100L).equals(((MessageAck) ack).getMessageId())));
+        verify(messageService, never()).sendMessage(any(), any(), any(), any());
+    }
+
+    @Test
+    void writeBehind_failedBatchIsRetriedPerMessageAndReportsTheBadOne() {
+        service = service("write-behind");
+        stubValidRoom();
+        when(batchWriter.allocateMessageIds(2)).thenReturn(List.of(100L, 101L));
+        doThrow(new IllegalStateException("fk violation"))
+                .when(batchWriter).insertMessages(argThat(messages -> messages.size() == 2
+                        || messages.get(0).getId() == 101L));
+
+        service.submit(1L, 10L, request("ok", "c-1"), 7L);
+        service.submit(1L, 10L, request("bad", "c-2"), 7L);
+        service.flush();
+
+        // Retried rows keep the ids drawn for the failed batch
+        verify(batchWriter, times(1)).allocateMessageIds(anyInt());
+        verify(roomRepository).updateLastMessage(eq(1L), eq(100L), any());
+        verify(broadcaster).toUser(eq(1L), eq("7"), eq(MessageIngestService.ACK_DESTINATION),
+                argThat(ack -> ((MessageAck) ack).getStatus() == MessageAck.Status.FAILED
+                        && "c-2".equals(((MessageAck) ack).getClientMessageId())));
+        assertThat(meterRegistry.get("chat.ingest.failed").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("chat.ingest.persisted").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void writeBehind_queuedMessageIsNotOlderThanADirectSendStoredWhileItWaited() {
+        service = service("write-behind");
+        stubValidRoom();
+        LocalDateTime[] directCreatedAt = new LocalDateTime[1];
+        when(messageService.sendMessage(eq(1L), eq(10L), any(), eq(7L))).thenAnswer(invocation -> {
+            directCreatedAt[0] = LocalDateTime.now();
+            return MessageResponse.builder().id(500L).roomId(1L).build();
+        });
+        when(batchWriter.allocateMessageIds(1)).thenReturn(List.of(501L));
+
+        service.submit(1L, 10L, request("queued", "c-1"), 7L);
+        SendMessageRequest reply = request("direct", "c-2");
+        reply.setParentMessageId(99L);
+        service.submit(1L, 10L, reply, 7L);
+        service.flush();
+
+        ArgumentCaptor<List<Message>> written = ArgumentCaptor.captor();
+        verify(batchWriter).insertMessages(written.capture());
+        Message queued = written.getValue().get(0);
+        assertThat(queued.getId()).isGreaterThan(500L);
+        assertThat(queued.getCreatedAt()).isAfterOrEqualTo(directCreatedAt[0]);
+        verify(roomRepository).updateLastMessage(1L, 501L, queued.getCreatedAt());
+    }
+
+    @Test
+    void writeBehind_rejectsNonMembersWithoutTouchingTheDatabase() {
+        service = service("write-behind");
+        when(membershipCache.isMember(1L, 7L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.submit(1L, 10L, request("hello", null), 7L))
+                .isInstanceOf(UnauthorizedException.class);
+        verifyNoInteractions(batchWriter, channelRepository);
+    }
+
+    @Test
+    void writeBehind_repliesTakeTheDirectPath() {
+        service = service("write-behind");
+        when(messageService.sendMessage(eq(1L), eq(10L), any(), eq(7L)))
+                .thenReturn(MessageResponse.builder().id(500L).roomId(1L).build());
+        SendMessageRequest reply = request("re: hello", null);
+        reply.setParentMessageId(99L);
+
+        assertThat(service.submit(1L, 10L, reply, 7L).getStatus()).isEqualTo(MessageAck.Status.PERSISTED);
+        verifyNoInteractions(batchWriter);
+    }
+
+    private void stubValidRoom() {
+        Room room = Room.builder().id(1L).name("Lecture").creatorId(7L).build();
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(channelRepository.findById(10L))
+                .thenReturn(Optional.of(Channel.builder().id(10L).room(room).name("General").build()));
+    }
+
+    private SendMessageRequest request(String content, String clientMessageId) {
+        SendMessageRequest request = new SendMessageRequest();
+        request.setContent(content);
+        request.setClientMessageId(clientMessageId);
+        return request;
+    }
+
+    private MessageIngestService service(String mode) {
+        return new MessageIngestService(messageService, batchWriter, roomRepository, channelRepository,
+                membershipCache, broadcaster, transactionManager, meterRegistry,
+                mode, 200, Duration.ofHours(1), 100);
+    }
+}
@@ -0,0 +1,99 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.dto.request.MessageCursor;
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import com.studyhub.chat_service.dto.response.MessageSearchResponse;
+import com.studyhub.chat_service.exception.UnauthorizedException;
+import com.studyhub.chat_service.repository.MessageSearchRepository;
+import com.studyhub.chat_service.repository.MessageSearchRepository.SearchHit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageSearchServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private MessageSearchRepository searchRepository;
+
+    @Mock
+    private RoomMembershipCache membershipCache;
+
+    @Mock
+    private MessageService messageService;
+
+    @InjectMocks
+    private MessageSearchService service;
+
+    @Test
+    void search_escapesSnippetsAndReturnsCursorWhenMoreRowsExist() {
+        when(searchRepository.search(7L, "homework", null, null, null, null, 3)).thenReturn(List.of(
+                hit(102L, T0.plusSeconds(2), "<b>" + mark("homework") + "</b> due"),
+                hit(101L, T0.plusSeconds(1), mark("homework") + " done"),
+                hit(100L, T0, "old " + mark("homework"))));
+        when(messageService.resolveSenders(Set.of(8L))).thenReturn(Map.of(
+                8L, new MessageResponse.SenderInfo(8L, "bob", "Bob", null)));
+
+        MessageSearchResponse response = service.search(" homework ", null, null, null, 2, 7L);
+
+        assertThat(response.getResults()).hasSize(2);
+        assertThat(response.getResults().get(0).getSnippet())
+                .isEqualTo("&lt;b&gt;<mark>homework</mark>&lt;/b&gt; due");
+        assertThat(response.getResults().get(0).getSender().getUsername()).isEqualTo("bob");
+        assertThat(response.getHasMore()).isTrue();
+        assertThat(MessageCursor.decode(response.getNextCursor()))
+                .isEqualTo(new MessageCursor(T0.plusSeconds(1), 101L));
+    }
+
+    @Test
+    void search_continuesFromCursor() {
+        String cursor = new MessageCursor(T0, 100L).encode();
+        when(searchRepository.search(7L, "exam", 1L, 10L, T0, 100L, 21)).thenReturn(List.of());
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+
+        MessageSearchResponse response = service.search("exam", 1L, 10L, cursor, 20, 7L);
+
+        assertThat(response.getResults()).isEmpty();
+        assertThat(response.getHasMore()).isFalse();
+        assertThat(response.getNextCursor()).isNull();
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    void search_blankQueryReturnsNothingWithoutQuerying() {
+        assertThat(service.search("   ", null, null, null, 20, 7L).getResults()).isEmpty();
+        verifyNoInteractions(searchRepository);
+    }
+
+    @Test
+    void search_rejectsRoomsTheCallerIsNotIn() {
+        when(membershipCache.isMember(1L, 7L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.search("exam", 1L, null, null, 20, 7L))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(searchRepository, never()).search(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    private SearchHit hit(Long id, LocalDateTime createdAt, String snippet) {
+        return new SearchHit(id, 1L, 10L, 8L, snippet, createdAt);
+    }
+
+    private String mark(String word) {
+        return MessageSearchRepository.MATCH_START + word + MessageSearchRepository.MATCH_END;
+    }
+}
@@ -0,0 +1,330 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.cache.ClusterCacheInvalidator;
+import com.studyhub.chat_service.cache.PinnedMessageCache;
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.cache.UserInfoCache;
+import com.studyhub.chat_service.client.UserClient;
+import com.studyhub.chat_service.dto.request.AddReactionRequest;
+import com.studyhub.chat_service.dto.request.AttachmentDto;
+import com.studyhub.chat_service.dto.request.MessageCursor;
+import com.studyhub.chat_service.dto.request.SendMessageRequest;
+import com.studyhub.chat_service.dto.response.MessageHistoryResponse;
+import com.studyhub.chat_service.dto.response.MessageResponse;
+import com.studyhub.chat_service.entity.*;
+import com.studyhub.chat_service.exception.InvalidCursorException;
+import com.studyhub.chat_service.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageAttachmentRepository attachmentRepository;
+
+    @Mock
+    private MessageReactionRepository reactionRepository;
+
+    @Mock
+    private MessageReactionCountRepository reactionCountRepository;
+
+    @Mock
+    private ChannelRepository channelRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private RoomMembershipCache membershipCache;
+
+    @Spy
+    private PinnedMessageCache pinnedMessageCache =
+            new PinnedMessageCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10),
+                    mock(ClusterCacheInvalidator.class));
+
+    @Mock
+    private OutboundBroadcaster broadcaster;
+
+    @Mock
+    private UserInfoCache userInfoCache;
+
+    @Mock
+    private ReactionUpdateBroadcaster reactionUpdateBroadcaster;
+
+    @InjectMocks
+    private MessageService service;
+
+    private Channel channel;
+
+    @BeforeEach
+    void setUp() {
+        Room room = Room.builder().id(1L).name("Room").creatorId(7L).build();
+        channel = Channel.builder().id(10L).room(room).name("General").build();
+    }
+
+    @Test
+    void sendMessage_advancesRoomLastMessagePointer() {
+        Message saved = message(200L, 7L);
+        SendMessageRequest request = new SendMessageRequest();
+        request.setContent("hello");
+
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(messageRepository.save(any(Message.class))).thenReturn(saved);
+
+        service.sendMessage(1L, 10L, request, 7L);
+
+        verify(roomRepository).updateLastMessage(1L, 200L, saved.getCreatedAt());
+        verify(broadcaster).toChannel(eq(1L), eq(10L), eq(200L), any(MessageResponse.class));
+    }
+
+    @Test
+    void sendMessage_locksTheRoomRowOnlyAfterAttachmentsAndSenderLookup() {
+        Message saved = message(200L, 7L);
+        SendMessageRequest request = new SendMessageRequest();
+        request.setContent("notes");
+        request.setAttachments(List.of(new AttachmentDto("f-1", "notes.pdf", "application/pdf", 10L)));
+
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(messageRepository.save(any(Message.class))).thenReturn(saved);
+
+        service.sendMessage(1L, 10L, request, 7L);
+
+        InOrder inOrder = inOrder(attachmentRepository, userInfoCache, roomRepository);
+        inOrder.verify(attachmentRepository).saveAll(anyList());
+        inOrder.verify(userInfoCache).getAll(anySet());
+        inOrder.verify(roomRepository).updateLastMessage(1L, 200L, saved.getCreatedAt());
+    }
+
+    @Test
+    void getMessageHistoryByChannel_hydratesPageWithBatchedLookups() {
+        Message first = message(100L, 7L);
+        Message second = message(101L, 8L);
+        Message third = message(102L, 7L);
+
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(messageRepository.findByChannelIdOrderByCreatedAtDesc(eq(10L), any()))
+                .thenReturn(new PageImpl<>(List.of(first, second, third), PageRequest.of(0, 3), 3));
+
+        when(attachmentRepository.findByMessageIdIn(anyCollection())).thenReturn(List.of(
+                MessageAttachment.builder().id(1L).message(second).fileId("f-1").fileName("notes.pdf").build()));
+        when(reactionCountRepository.findByMessageIdIn(anyCollection())).thenReturn(List.of(
+                new MessageReactionCount(new MessageReactionCountId(100L, "👍"), 2),
+                new MessageReactionCount(new MessageReactionCountId(102L, "🎉"), 1)));
+        when(reactionRepository.findByMessageIdsAndUserId(anyCollection(), eq(7L))).thenReturn(List.of(
+                MessageReaction.builder().id(new MessageReactionId(100L, 7L, "👍")).build()));
+        when(userInfoCache.getAll(anySet())).thenReturn(Map.of(
+                7L, new UserClient.UserInfo(7L, "alice", "Alice", null),
+                8L, new UserClient.UserInfo(8L, "bob", "Bob", null)));
+
+        Page<MessageResponse> page = service.getMessageHistoryByChannel(10L, 7L, PageRequest.of(0, 3));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(MessageResponse::getId).containsExactly(100L, 101L, 102L);
+
+        MessageResponse r0 = page.getContent().get(0);
+        assertThat(r0.getReactionCounts()).containsEntry("👍", 2);
+        assertThat(r0.getUserReactions()).containsExactly("👍");
+        assertThat(r0.getAttachments()).isEmpty();
+        assertThat(r0.getSender().getUsername()).isEqualTo("alice");
+
+        MessageResponse r1 = page.getContent().get(1);
+        assertThat(r1.getAttachments()).extracting(MessageResponse.AttachmentInfo::getFileId).containsExactly("f-1");
+        assertThat(r1.getReactionCounts()).isEmpty();
+        assertThat(r1.getSender().getUsername()).isEqualTo("bob");
+
+        // one query per concern and one sender lookup for the whole page
+        verify(attachmentRepository, times(1)).findByMessageIdIn(anyCollection());
+        verify(reactionCountRepository, times(1)).findByMessageIdIn(anyCollection());
+        verify(reactionRepository, times(1)).findByMessageIdsAndUserId(anyCollection(), eq(7L));
+        verify(userInfoCache, times(1)).getAll(Set.of(7L, 8L));
+        verify(attachmentRepository, never()).findByMessageId(anyLong());
+        verify(reactionRepository, never()).countReactionsByMessageId(anyLong());
+    }
+
+    @Test
+    void getMessageHistoryByChannel_usesPlaceholderWhenUserServiceFails() {
+        Message only = message(100L, 9L);
+
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(messageRepository.findByChannelIdOrderByCreatedAtDesc(eq(10L), any()))
+                .thenReturn(new PageImpl<>(List.of(only), PageRequest.of(0, 1), 1));
+        when(userInfoCache.getAll(anySet())).thenThrow(new RuntimeException("user-service down"));
+
+        Page<MessageResponse> page = service.getMessageHistoryByChannel(10L, 7L, PageRequest.of(0, 1));
+
+        assertThat(page.getContent().get(0).getSender().getUsername()).isEqualTo("user9");
+    }
+
+    @Test
+    void getMessageHistoryByCursor_continuesBeforeCursorAndReturnsNextCursor() {
+        Message newer = message(101L, 7L);
+        Message older = message(100L, 7L);
+        MessageCursor cursor = new MessageCursor(LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_000), 102L);
+
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(messageRepository.findByChannelIdBefore(10L, cursor.createdAt(), 102L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(newer, older), PageRequest.of(0, 2), true));
+        when(userInfoCache.getAll(anySet())).thenReturn(Map.of());
+
+        MessageHistoryResponse result = service.getMessageHistoryByCursor(10L, 7L, cursor.encode(), null, 2);
+
+        assertThat(result.getMessages()).extracting(MessageResponse::getId).containsExactly(101L, 100L);
+        assertThat(result.getHasMore()).isTrue();
+        assertThat(MessageCursor.decode(result.getNextCursor())).isEqualTo(MessageCursor.of(older));
+        verify(messageRepository, never()).findByChannelIdOrderByCreatedAtDesc(any(), any());
+    }
+
+    @Test
+    void getMessageHistoryByCursor_lastSliceHasNoNextCursor() {
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(messageRepository.findLatestByChannelId(eq(10L), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 50), false));
+
+        MessageHistoryResponse result = service.getMessageHistoryByCursor(10L, 7L, null, null, 50);
+
+        assertThat(result.getMessages()).isEmpty();
+        assertThat(result.getHasMore()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getMessageHistoryByCursor_rejectsMalformedOrConflictingCursors() {
+        assertThatThrownBy(() -> service.getMessageHistoryByCursor(10L, 7L, "a", "b", 50))
+                .isInstanceOf(InvalidCursorException.class);
+
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        assertThatThrownBy(() -> service.getMessageHistoryByCursor(10L, 7L, "not-a-cursor", null, 50))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void addReaction_incrementsCounterOnlyWhenReactionIsNew() {
+        Message target = message(100L, 8L);
+        when(messageRepository.findById(100L)).thenReturn(Optional.of(target));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(reactionRepository.insertIfAbsent(100L, 7L, "👍")).thenReturn(1, 0);
+
+        AddReactionRequest request = new AddReactionRequest();
+        request.setEmoji("👍");
+        service.addReaction(100L, request, 7L);
+        service.addReaction(100L, request, 7L);
+
+        verify(reactionCountRepository, times(1)).increment(100L, "👍");
+        verify(reactionRepository, never()).existsById(any());
+        verify(reactionUpdateBroadcaster, times(1)).reactionsChanged(1L, 100L);
+        verifyNoInteractions(broadcaster, attachmentRepository);
+    }
+
+    @Test
+    void removeReaction_decrementsCounterOnlyWhenReactionExisted() {
+        Message target = message(100L, 8L);
+        when(messageRepository.findById(100L)).thenReturn(Optional.of(target));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(reactionRepository.deleteReaction(100L, 7L, "👍")).thenReturn(1, 0);
+
+        service.removeReaction(100L, "👍", 7L);
+        service.removeReaction(100L, "👍", 7L);
+
+        verify(reactionCountRepository, times(1)).decrement(100L, "👍");
+        verify(reactionUpdateBroadcaster, times(1)).reactionsChanged(1L, 100L);
+    }
+
+    @Test
+    void pinMessage_enforcesLimitWithCountOfTheMessagesChannel() {
+        Message target = message(100L, 8L);
+        when(messageRepository.findById(100L)).thenReturn(Optional.of(target));
+        when(membershipCache.isOwner(1L, 7L)).thenReturn(true);
+        when(messageRepository.countPinnedMessagesByChannelId(10L)).thenReturn(5L);
+
+        assertThatThrownBy(() -> service.pinMessage(100L, 7L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Maximum pinned messages");
+        verify(messageRepository, never()).findPinnedMessagesByChannelId(any());
+        verify(messageRepository, never()).save(any());
+    }
+
+    @Test
+    void getPinnedMessages_loadsChannelOnceAndAddsEachCallersReactions() {
+        Message pinned = message(100L, 8L);
+        pinned.setIsPinned(true);
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(membershipCache.isMember(eq(1L), anyLong())).thenReturn(true);
+        when(messageRepository.findPinnedMessagesByChannelId(10L)).thenReturn(List.of(pinned));
+        when(reactionRepository.findByMessageIdsAndUserId(anyCollection(), eq(7L))).thenReturn(List.of(
+                MessageReaction.builder().id(new MessageReactionId(100L, 7L, "👍")).build()));
+
+        List<MessageResponse> forAlice = service.getPinnedMessages(10L, 7L);
+        List<MessageResponse> forBob = service.getPinnedMessages(10L, 9L);
+
+        verify(messageRepository, times(1)).findPinnedMessagesByChannelId(10L);
+        assertThat(forAlice).extracting(MessageResponse::getId).containsExactly(100L);
+        assertThat(forAlice.get(0).getUserReactions()).containsExactly("👍");
+        assertThat(forBob.get(0).getUserReactions()).isEmpty();
+    }
+
+    @Test
+    void unpinMessage_dropsTheCachedPinnedSet() {
+        Message pinned = message(100L, 8L);
+        pinned.setIsPinned(true);
+        when(channelRepository.findById(10L)).thenReturn(Optional.of(channel));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(membershipCache.isOwner(1L, 7L)).thenReturn(true);
+        when(messageRepository.findPinnedMessagesByChannelId(10L)).thenReturn(List.of(pinned), List.of());
+        when(messageRepository.findById(100L)).thenReturn(Optional.of(pinned));
+        when(messageRepository.save(pinned)).thenReturn(pinned);
+
+        assertThat(service.getPinnedMessages(10L, 7L)).hasSize(1);
+        service.unpinMessage(100L, 7L);
+
+        assertThat(service.getPinnedMessages(10L, 7L)).isEmpty();
+        verify(pinnedMessageCache).invalidate(10L);
+    }
+
+    private Message message(Long id, Long senderId) {
+        return Message.builder()
+                .id(id)
+                .channel(channel)
+                .senderId(senderId)
+                .content("hello " + id)
+                .isPinned(false)
+                .isEdited(false)
+                .isDeleted(false)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.broker.ChannelReplayBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboundBroadcasterTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboundBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+        }
+    }
+
+    @Test
+    void eventsInsideATransaction_areSentOnlyAfterCommit() {
+        broadcaster = new OutboundBroadcaster(messagingTemplate, meterRegistry, 2, 16);
+        TransactionSynchronizationManager.initSynchronization();
+
+        broadcaster.toRoom(1L, "/topic/rooms/1", "created");
+        broadcaster.drain();
+        verifyNoInteractions(messagingTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        broadcaster.drain();
+        verify(messagingTemplate).convertAndSend("/topic/rooms/1", (Object) "created");
+    }
+
+    @Test
+    void channelMessages_carryTheMessageIdHeader() {
+        broadcaster = new OutboundBroadcaster(messagingTemplate, meterRegistry, 2, 16);
+
+        broadcaster.toChannel(1L, 10L, 200L, "hello");
+        broadcaster.drain();
+
+        verify(messagingTemplate).convertAndSend("/topic/rooms/1/channels/10", "hello",
+                Map.of(ChannelReplayBuffer.MESSAGE_ID_HEADER, 200L));
+    }
+
+    @Test
+    void rolledBackTransaction_sendsNothing() {
+        broadcaster = new OutboundBroadcaster(messagingTemplate, meterRegistry, 2, 16);
+        TransactionSynchronizationManager.initSynchronization();
+
+        broadcaster.toUser(1L, "7", "/queue/rooms/invites", "invite");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        broadcaster.drain();
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void fullLane_dropsAndCountsInsteadOfBlocking() {
+        broadcaster = new OutboundBroadcaster(messagingTemplate, meterRegistry, 1, 2);
+
+        broadcaster.toRoom(1L, "/topic/rooms/1", "a");
+        broadcaster.toRoom(1L, "/topic/rooms/1", "b");
+        broadcaster.toRoom(1L, "/topic/rooms/1", "c");
+
+        assertThat(meterRegistry.get("chat.broadcast.queue.depth").gauge().value()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("chat.broadcast.dropped").counter().count()).isEqualTo(1.0);
+
+        broadcaster.drain();
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+        assertThat(meterRegistry.get("chat.broadcast.delivery.lag").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void failedSend_isCountedAndLaterEventsStillGoOut() {
+        broadcaster = new OutboundBroadcaster(messagingTemplate, meterRegistry, 1, 16);
+        doThrow(new IllegalStateException("broker down")).doNothing()
+                .when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+        broadcaster.toRoom(1L, "/topic/rooms/1", "a");
+        broadcaster.toRoom(1L, "/topic/rooms/1", "b");
+        broadcaster.drain();
+
+        assertThat(meterRegistry.get("chat.broadcast.failed").counter().count()).isEqualTo(1.0);
+        verify(messagingTemplate).convertAndSend("/topic/rooms/1", (Object) "b");
+    }
+
+    @Test
+    void workers_preserveOrderWithinARoom() {
+        broadcaster = new OutboundBroadcaster(messagingTemplate, meterRegistry, 4, 1024);
+        List<Object> roomOne = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            if ("/topic/rooms/1".equals(invocation.getArgument(0))) {
+                roomOne.add(invocation.getArgument(1));
+            }
+            return null;
+        }).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+        broadcaster.start();
+
+        IntStream.range(0, 200).forEach(i -> {
+            broadcaster.toRoom(1L, "/topic/rooms/1", i);
+            broadcaster.toRoom(2L, "/topic/rooms/2", i);
+        });
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(roomOne).hasSize(200));
+        assertThat(roomOne).containsExactlyElementsOf(IntStream.range(0, 200).boxed().toList());
+    }
+}
@@ -0,0 +1,88 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.dto.response.ReactionUpdateEvent;
+import com.studyhub.chat_service.entity.MessageReactionCount;
+import com.studyhub.chat_service.entity.MessageReactionCountId;
+import com.studyhub.chat_service.repository.MessageReactionCountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactionUpdateBroadcasterTest {
+
+    @Mock
+    private MessageReactionCountRepository reactionCountRepository;
+
+    @Mock
+    private OutboundBroadcaster outboundBroadcaster;
+
+    private ReactionUpdateBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        // Long window so the test drives flush() itself
+        broadcaster = new ReactionUpdateBroadcaster(reactionCountRepository, outboundBroadcaster, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void burstOnOneMessage_isSentOnceWithLatestCounts() {
+        when(reactionCountRepository.findByMessageIdIn(Set.of(100L))).thenReturn(List.of(
+                new MessageReactionCount(new MessageReactionCountId(100L, "👍"), 40)));
+
+        for (int i = 0; i < 40; i++) {
+            broadcaster.reactionsChanged(1L, 100L);
+        }
+        broadcaster.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(outboundBroadcaster, times(1)).toRoom(eq(1L), eq("/topic/rooms/1"), payload.capture());
+        ReactionUpdateEvent event = (ReactionUpdateEvent) payload.getValue();
+        assertThat(event.getType()).isEqualTo(ReactionUpdateEvent.TYPE);
+        assertThat(event.getMessageId()).isEqualTo(100L);
+        assertThat(event.getReactionCounts()).containsExactlyEntriesOf(Map.of("👍", 40));
+        verify(reactionCountRepository, times(1)).findByMessageIdIn(anyCollection());
+    }
+
+    @Test
+    void severalMessages_shareOneCounterLookup() {
+        when(reactionCountRepository.findByMessageIdIn(Set.of(100L, 200L))).thenReturn(List.of(
+                new MessageReactionCount(new MessageReactionCountId(100L, "👍"), 1)));
+
+        broadcaster.reactionsChanged(1L, 100L);
+        broadcaster.reactionsChanged(2L, 200L);
+        broadcaster.flush();
+
+        verify(reactionCountRepository, times(1)).findByMessageIdIn(anyCollection());
+        verify(outboundBroadcaster).toRoom(eq(1L), eq("/topic/rooms/1"), any(Object.class));
+        // Last reaction removed: an empty map tells clients to clear the message's reactions
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(outboundBroadcaster).toRoom(eq(2L), eq("/topic/rooms/2"), payload.capture());
+        assertThat(((ReactionUpdateEvent) payload.getValue()).getReactionCounts()).isEmpty();
+    }
+
+    @Test
+    void flushWithNothingPending_doesNothing() {
+        broadcaster.flush();
+
+        verifyNoInteractions(reactionCountRepository, outboundBroadcaster);
+    }
+}
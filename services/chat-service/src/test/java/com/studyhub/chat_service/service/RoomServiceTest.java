@@ -0,0 +1,126 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.dto.request.CreateDirectMessageRequest;
+import com.studyhub.chat_service.dto.response.RoomResponse;
+import com.studyhub.chat_service.entity.Room;
+import com.studyhub.chat_service.entity.RoomType;
+import com.studyhub.chat_service.event.RoomMembershipChangedEvent;
+import com.studyhub.chat_service.repository.RoomMemberRepository;
+import com.studyhub.chat_service.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomServiceTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private RoomMemberRepository roomMemberRepository;
+
+    @Mock
+    private OutboundBroadcaster broadcaster;
+
+    @Mock
+    private RoomMembershipCache membershipCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RoomService service;
+
+    @Test
+    void directMessageKey_isTheSameForBothUsers() {
+        assertThat(Room.directMessageKey(9L, 4L)).isEqualTo("4:9").isEqualTo(Room.directMessageKey(4L, 9L));
+    }
+
+    @Test
+    void createOrGetDirectMessage_returnsExistingRoomWithOneLookup() {
+        when(roomRepository.findByDmKey("4:9")).thenReturn(Optional.of(dmRoom()));
+        when(membershipCache.isMember(eq(5L), anyLong())).thenReturn(true);
+
+        RoomResponse response = service.createOrGetDirectMessage(new CreateDirectMessageRequest(4L), 9L);
+
+        assertThat(response.getId()).isEqualTo(5L);
+        verify(roomRepository, never()).insertDirectMessageRoomIfAbsent(any(), any(), any(), any());
+        verifyNoInteractions(roomMemberRepository);
+    }
+
+    @Test
+    void createOrGetDirectMessage_addsMembersOnlyWhenThisCallCreatedTheRoom() {
+        when(roomRepository.findByDmKey("4:9")).thenReturn(Optional.empty(), Optional.of(dmRoom()));
+        when(roomRepository.insertDirectMessageRoomIfAbsent(anyString(), anyString(), eq(9L), eq("4:9")))
+                .thenReturn(0);
+
+        RoomResponse response = service.createOrGetDirectMessage(new CreateDirectMessageRequest(4L), 9L);
+
+        assertThat(response.getId()).isEqualTo(5L);
+        verifyNoInteractions(roomMemberRepository, eventPublisher);
+    }
+
+    @Test
+    void createOrGetDirectMessage_afterLeavingAddsTheUserBackToTheSameRoom() {
+        Room room = dmRoom();
+        room.setLastMessageId(120L);
+        when(roomRepository.findById(5L)).thenReturn(Optional.of(room));
+        when(roomRepository.findByDmKey("4:9")).thenReturn(Optional.of(room));
+        when(membershipCache.isMember(5L, 4L)).thenReturn(true);
+        when(membershipCache.isMember(5L, 9L)).thenReturn(false);
+        when(roomMemberRepository.insertMemberIfAbsent(5L, 9L, 120L)).thenReturn(1);
+
+        service.leaveRoom(5L, 9L);
+        RoomResponse response = service.createOrGetDirectMessage(new CreateDirectMessageRequest(4L), 9L);
+
+        assertThat(response.getId()).isEqualTo(5L);
+        verify(roomMemberRepository).insertMemberIfAbsent(5L, 9L, 120L);
+        verify(roomMemberRepository, never()).insertMemberIfAbsent(eq(5L), eq(4L), any());
+        verify(roomRepository, never()).insertDirectMessageRoomIfAbsent(any(), any(), any(), any());
+        verify(eventPublisher, times(2)).publishEvent(new RoomMembershipChangedEvent(5L)); // leave, then rejoin
+    }
+
+    @Test
+    void markRoomRead_clampsTheCursorToTheRoomsLatestMessage() {
+        when(membershipCache.isMember(5L, 9L)).thenReturn(true);
+        Room room = dmRoom();
+        room.setLastMessageId(120L);
+        when(roomRepository.findById(5L)).thenReturn(Optional.of(room));
+
+        service.markRoomRead(5L, Long.MAX_VALUE, 9L);
+        service.markRoomRead(5L, 100L, 9L);
+        service.markRoomRead(5L, null, 9L);
+
+        verify(roomMemberRepository, times(2)).updateReadCursor(5L, 9L, 120L);
+        verify(roomMemberRepository).updateReadCursor(5L, 9L, 100L);
+    }
+
+    @Test
+    void markRoomRead_inARoomWithoutMessagesDoesNothing() {
+        when(membershipCache.isMember(5L, 9L)).thenReturn(true);
+        when(roomRepository.findById(5L)).thenReturn(Optional.of(dmRoom()));
+
+        service.markRoomRead(5L, 42L, 9L);
+
+        verify(roomMemberRepository, never()).updateReadCursor(any(), any(), any());
+    }
+
+    private Room dmRoom() {
+        return Room.builder()
+                .id(5L).name("DM").creatorId(4L).isPublic(false).roomType(RoomType.DIRECT_MESSAGE.toString())
+                .maxMembers(2).dmKey("4:9").channels(new ArrayList<>())
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.studyhub.chat_service.service;
+
+import com.studyhub.chat_service.cache.RoomMembershipCache;
+import com.studyhub.chat_service.dto.response.TypingEvent;
+import com.studyhub.chat_service.dto.response.TypingSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TypingIndicatorServiceTest {
+
+    private static final String DESTINATION = "/topic/rooms/1/channels/10/typing";
+
+    @Mock
+    private RoomMembershipCache membershipCache;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final MutableClock clock = new MutableClock();
+    private TypingIndicatorService service;
+
+    @BeforeEach
+    void setUp() {
+        // Long interval so the test drives flush() itself
+        service = new TypingIndicatorService(membershipCache, messagingTemplate,
+                Duration.ofHours(1), Duration.ofSeconds(5), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void keystrokesFromSeveralUsers_collapseIntoOneSnapshotPerInterval() {
+        when(membershipCache.isMember(eq(1L), any())).thenReturn(true);
+
+        for (int i = 0; i < 20; i++) {
+            service.typing(1L, 10L, 7L, "alice");
+            service.typing(1L, 10L, 8L, "bob");
+        }
+        service.flush();
+
+        TypingSnapshot snapshot = captureSnapshots(1);
+        assertThat(snapshot.getUsers()).extracting(TypingEvent::getUserId).containsExactlyInAnyOrder(7L, 8L);
+
+        // Same people still typing: nothing new to send
+        service.typing(1L, 10L, 7L, "alice");
+        service.flush();
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void usersExpireAfterTimeoutAndEmptySnapshotIsSent() {
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+
+        service.typing(1L, 10L, 7L, "alice");
+        service.flush();
+        clock.advance(Duration.ofSeconds(6));
+        service.flush();
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(DESTINATION), payloads.capture());
+        assertThat(((TypingSnapshot) payloads.getAllValues().get(1)).getUsers()).isEmpty();
+
+        // Channel state is dropped once nobody is typing
+        service.flush();
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void stoppedTyping_removesUserOnNextFlush() {
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+
+        service.typing(1L, 10L, 7L, "alice");
+        service.flush();
+        service.stoppedTyping(1L, 10L, 7L);
+        service.flush();
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(DESTINATION), payloads.capture());
+        assertThat(((TypingSnapshot) payloads.getAllValues().get(1)).getUsers()).isEmpty();
+    }
+
+    @Test
+    void nonMembers_areIgnored() {
+        when(membershipCache.isMember(1L, 99L)).thenReturn(false);
+
+        service.typing(1L, 10L, 99L, "mallory");
+        service.flush();
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    private TypingSnapshot captureSnapshots(int expected) {
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(expected)).convertAndSend(eq(DESTINATION), payloads.capture());
+        return (TypingSnapshot) payloads.getValue();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-01-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
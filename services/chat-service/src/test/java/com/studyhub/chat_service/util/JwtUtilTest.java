@@ -0,0 +1,60 @@
+package com.studyhub.chat_service.util;
+
+import com.studyhub.chat_service.client.UserClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class JwtUtilTest {
+
+    private UserClient userClient;
+
+    @BeforeEach
+    void setUp() {
+        userClient = mock(UserClient.class);
+        new JwtUtil().setUserClient(userClient);
+    }
+
+    @Test
+    void getUserIdFromJwt_resolvesKeycloakSubjectOnce() {
+        String subject = UUID.randomUUID().toString();
+        when(userClient.getUserByKeycloakId(subject)).thenReturn(new UserClient.UserInfo(42L, "u", "U", null));
+
+        assertThat(JwtUtil.getUserIdFromJwt(jwt(subject))).isEqualTo(42L);
+        assertThat(JwtUtil.getUserIdFromJwt(jwt(subject))).isEqualTo(42L);
+
+        verify(userClient, times(1)).getUserByKeycloakId(subject);
+    }
+
+    @Test
+    void getUserIdFromJwt_doesNotCacheFailures() {
+        String subject = UUID.randomUUID().toString();
+        when(userClient.getUserByKeycloakId(subject))
+                .thenThrow(new RuntimeException("user-service down"))
+                .thenReturn(new UserClient.UserInfo(43L, "u", "U", null));
+
+        assertThatThrownBy(() -> JwtUtil.getUserIdFromJwt(jwt(subject))).isInstanceOf(IllegalStateException.class);
+        assertThat(JwtUtil.getUserIdFromJwt(jwt(subject))).isEqualTo(43L);
+    }
+
+    @Test
+    void getUserIdFromJwt_numericSubjectSkipsLookup() {
+        assertThat(JwtUtil.getUserIdFromJwt(jwt("7"))).isEqualTo(7L);
+        verifyNoInteractions(userClient);
+    }
+
+    private Jwt jwt(String subject) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(subject)
+                .issuedAt(Instant.now())
+                .build();
+    }
+}
@@ -53,4 +53,7 @@ public final class Constants {
     public static final String CACHE_USER_PREFIX = "user:";
     public static final String CACHE_SESSION_PREFIX = "session:";
     public static final int CACHE_DEFAULT_TTL_MINUTES = 30;
+
+    // Kafka Topics
+    public static final String TOPIC_USER_PROFILE_UPDATED = "user.profile-updated";
 }
@@ -15,6 +15,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -22,6 +23,8 @@ import java.util.Map;
 @Slf4j
 public class UserController {
 
+    private static final int MAX_BATCH_SIZE = 200;
+
     private final UserService userService;
     private final UserProfileService userProfileService;
 
@@ -47,6 +50,21 @@ public class UserController {
         return ResponseEntity.ok(profile);
     }
 
+    /**
+     * Get compact info for many users in one call (for service-to-service
+     * calls) Unknown IDs are omitted from the result
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<UserBasicInfoDto>> getUsersByIds(@RequestParam("ids") Set<Long> userIds) {
+        log.info("Fetching basic info for {} users", userIds.size());
+        if (userIds.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_SIZE + " user ids can be requested at once");
+        }
+        List<UserBasicInfoDto> users = userProfileService.getUserBasicInfoByIds(userIds);
+        return ResponseEntity.ok(users);
+    }
+
     /**
      * Get user profile by user ID (for service-to-service calls) This endpoint
      * is used by other services (e.g., chat-service) to fetch user info
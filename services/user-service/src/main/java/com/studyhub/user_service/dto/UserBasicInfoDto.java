@@ -0,0 +1,19 @@
+package com.studyhub.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact user view for service-to-service lookups (e.g., chat sender info)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBasicInfoDto {
+
+    private Long id;
+    private String username;
+    private String fullName;
+    private String avatarUrl;
+}
@@ -0,0 +1,40 @@
+package com.studyhub.user_service.event;
+
+import com.studyhub.common.util.Constants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Relays user domain events to Kafka once the surrounding transaction commits,
+ * so other services (e.g., chat-service sender cache) can drop stale copies
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserEventPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${app.kafka.enabled:false}")
+    private boolean kafkaEnabled;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+        if (!kafkaEnabled) {
+            return;
+        }
+
+        String userId = event.userId().toString();
+        kafkaTemplate.send(Constants.TOPIC_USER_PROFILE_UPDATED, userId, userId)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Failed to publish profile update for userId: {}", userId, ex);
+                    }
+                });
+    }
+}
@@ -0,0 +1,7 @@
+package com.studyhub.user_service.event;
+
+/**
+ * Raised when user display fields (username, full name, avatar) change
+ */
+public record UserProfileUpdatedEvent(Long userId) {
+}
@@ -1,10 +1,12 @@
 package com.studyhub.user_service.repository;
 
+import com.studyhub.user_service.dto.UserBasicInfoDto;
 import com.studyhub.user_service.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +32,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
             + "LOWER(u.fullName) LIKE :searchPattern OR "
             + "LOWER(u.location) LIKE :searchPattern")
     List<User> searchUsers(@org.springframework.data.repository.query.Param("searchPattern") String searchPattern);
+
+    /**
+     * Load compact user info for many users in a single query
+     */
+    @Query("SELECT new com.studyhub.user_service.dto.UserBasicInfoDto(u.userId, u.username, u.fullName, p.avatarUrl) "
+            + "FROM User u LEFT JOIN u.userProfile p WHERE u.userId IN :userIds")
+    List<UserBasicInfoDto> findBasicInfoByUserIds(@org.springframework.data.repository.query.Param("userIds") Collection<Long> userIds);
 }
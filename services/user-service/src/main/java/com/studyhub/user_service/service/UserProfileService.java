@@ -3,6 +3,7 @@ package com.studyhub.user_service.service;
 import com.studyhub.user_service.dto.*;
 import com.studyhub.user_service.entity.LearningPath;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,6 +23,12 @@ public interface UserProfileService {
      */
     UserProfileViewResponse getUserProfileViewById(Long userId);
 
+    /**
+     * Get compact user info for many users at once (internal DB IDs) Used for
+     * service-to-service calls that only need display fields
+     */
+    List<UserBasicInfoDto> getUserBasicInfoByIds(Collection<Long> userIds);
+
     /**
      * Get comprehensive user profile view by Keycloak user ID Alias for
      * getUserProfileView for consistency
@@ -6,6 +6,7 @@ import com.studyhub.user_service.entity.LearningPath;
 import com.studyhub.user_service.entity.User;
 import com.studyhub.user_service.entity.UserProfile;
 import com.studyhub.user_service.entity.UserStats;
+import com.studyhub.user_service.event.UserProfileUpdatedEvent;
 import com.studyhub.user_service.mapper.UserMapper;
 import com.studyhub.user_service.repository.LearningPathRepository;
 import com.studyhub.user_service.repository.UserRepository;
@@ -14,9 +15,11 @@ import com.studyhub.user_service.repository.UserStatsRepository;
 import com.studyhub.user_service.service.UserProfileService;
 import com.studyhub.user_service.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -33,6 +36,7 @@ public class UserProfileServiceImpl implements UserProfileService {
     private final UserStatsRepository userStatsRepository;
     private final LearningPathRepository learningPathRepository;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -95,6 +99,17 @@ public class UserProfileServiceImpl implements UserProfileService {
         return userMapper.toProfileViewResponse(user);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserBasicInfoDto> getUserBasicInfoByIds(Collection<Long> userIds) {
+        log.info("Getting basic info for {} users", userIds.size());
+
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findBasicInfoByUserIds(userIds);
+    }
+
     @Override
     @Transactional
     public UserProfileViewResponse updateUserProfile(String keycloakUserId, UpdateUserProfileRequest request) {
@@ -136,6 +151,9 @@ public class UserProfileServiceImpl implements UserProfileService {
         userProfileRepository.save(profile);
         user.setUserProfile(profile);
 
+        // Let other services drop cached copies once this commits
+        eventPublisher.publishEvent(new UserProfileUpdatedEvent(user.getUserId()));
+
         return userMapper.toProfileViewResponse(user);
     }
 
@@ -2,9 +2,11 @@ package com.studyhub.user_service.service.impl;
 
 import com.studyhub.user_service.dto.*;
 import com.studyhub.user_service.entity.*;
+import com.studyhub.user_service.event.UserProfileUpdatedEvent;
 import com.studyhub.user_service.mapper.UserMapper;
 import com.studyhub.user_service.repository.LearningPathRepository;
 import com.studyhub.user_service.repository.UserProfileRepository;
+import com.studyhub.user_service.repository.UserRepository;
 import com.studyhub.user_service.repository.UserStatsRepository;
 import com.studyhub.user_service.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,8 +16,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -26,6 +31,9 @@ class UserProfileServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private UserProfileRepository userProfileRepository;
 
@@ -38,6 +46,9 @@ class UserProfileServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserProfileServiceImpl service;
 
@@ -115,6 +126,7 @@ class UserProfileServiceImplTest {
         verify(userMapper, times(1)).toProfileViewResponse(sampleUser);
         assertThat(sampleUser.getFullName()).isEqualTo("Updated Name");
         assertThat(sampleUser.getUserProfile().getAvatarUrl()).isEqualTo("http://localhost:9000/media/file-123");
+        verify(eventPublisher, times(1)).publishEvent(new UserProfileUpdatedEvent(42L));
     }
 
     @Test
@@ -170,4 +182,24 @@ class UserProfileServiceImplTest {
         verify(userStatsRepository, times(1)).save(any(UserStats.class));
         verify(userMapper, times(1)).toStatsDto(any(UserStats.class));
     }
+
+    @Test
+    void getUserBasicInfoByIds_loadsAllUsersInOneQuery() {
+        Set<Long> ids = Set.of(42L, 43L);
+        when(userRepository.findBasicInfoByUserIds(ids)).thenReturn(List.of(
+                new UserBasicInfoDto(42L, "test", "Test User", "http://localhost:9000/media/a"),
+                new UserBasicInfoDto(43L, "other", "Other User", null)));
+
+        List<UserBasicInfoDto> out = service.getUserBasicInfoByIds(ids);
+
+        assertThat(out).extracting(UserBasicInfoDto::getId).containsExactlyInAnyOrder(42L, 43L);
+        verify(userRepository, times(1)).findBasicInfoByUserIds(ids);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserBasicInfoByIds_returnsEmptyWithoutQuery() {
+        assertThat(service.getUserBasicInfoByIds(Collections.emptySet())).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
 }